@@ -0,0 +1,63 @@
+package neurevolve.network;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the activation of networks of the size built by small, medium and large recipes. Each
+ * network has the same mix of inputs, links, delays and activities as an evolved network.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NetworkBenchmark {
+
+    @Param({"5", "50", "500"})
+    private int size;
+
+    private Network network;
+    private Blackhole blackhole;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        this.blackhole = blackhole;
+        Random random = new Random(17);
+        network = new Network(new SigmoidFunction(100));
+        for (int n = 0; n < size; n++) {
+            network.addNeuron();
+            network.setThreshold(random.nextInt(64) - 32);
+            if (n == 0 || random.nextInt(3) == 0) {
+                int input = random.nextInt(200) - 100;
+                network.addInput(() -> input, random.nextInt(64) - 32);
+            }
+            for (int link = random.nextInt(4); link > 0 && n > 1; link--) {
+                network.addLink(random.nextInt(n - 1), random.nextInt(64) - 32);
+            }
+            if (random.nextInt(10) == 0)
+                network.addDelay(random.nextInt(4) + 1);
+            if (random.nextInt(5) == 0)
+                network.setActivity(() -> this.blackhole.consume(this));
+        }
+    }
+
+    @Benchmark
+    public Network activate() {
+        network.activate();
+        return network;
+    }
+}
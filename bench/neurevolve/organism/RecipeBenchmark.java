@@ -0,0 +1,73 @@
+package neurevolve.organism;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the distance between a recipe and a slightly mutated copy of it, as is done when
+ * dividing the population into species.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecipeBenchmark {
+
+    /**
+     * A typical maximum distance used when grouping organisms into species.
+     */
+    private static final int SPECIES_DISTANCE = 50;
+
+    @Param({"20", "200", "1000"})
+    private int size;
+
+    private Recipe recipe;
+    private Recipe mutant;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(29);
+        recipe = new Recipe(0);
+        mutant = new Recipe(0);
+        for (int i = 0; i < size; i++) {
+            byte value = (byte) random.nextInt(256);
+            recipe.add(value);
+            switch (random.nextInt(50)) {
+                case 0:
+                    break;
+                case 1:
+                    mutant.add(value);
+                    mutant.add(value);
+                    break;
+                case 2:
+                    mutant.add((byte) (value + random.nextInt(17) - 8));
+                    break;
+                default:
+                    mutant.add(value);
+            }
+        }
+    }
+
+    @Benchmark
+    public int distanceTo() {
+        return recipe.distanceTo(mutant);
+    }
+
+    @Benchmark
+    public int distanceWithinLimit() {
+        return recipe.distanceTo(mutant, SPECIES_DISTANCE);
+    }
+}
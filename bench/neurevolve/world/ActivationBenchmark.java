@@ -0,0 +1,52 @@
+package neurevolve.world;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.SAXException;
+
+/**
+ * Compares full and incremental evaluation of brains by measuring a tick of the default world
+ * seeded with each of the recipes shipped in the <tt>recipes</tt> directory.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActivationBenchmark {
+
+    private static final int WARMUP_TICKS = 200;
+
+    @Param({"_default", "complex", "lots_of_inputs", "maze1", "maze2", "maze3", "mover",
+        "valley_dweller", "with_attack"})
+    private String recipe;
+
+    @Param({"false", "true"})
+    private boolean incremental;
+
+    private WorldTicker ticker;
+
+    @Setup
+    public void setup() throws IOException, SAXException {
+        BenchmarkWorld world = new BenchmarkWorld("_default", recipe, WARMUP_TICKS);
+        world.getConfig().setIncremental(incremental);
+        ticker = world.getTicker();
+    }
+
+    @Benchmark
+    public void tick() {
+        ticker.tick();
+    }
+}
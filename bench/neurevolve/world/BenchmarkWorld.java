@@ -0,0 +1,74 @@
+package neurevolve.world;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import neurevolve.maker.Loader;
+import neurevolve.maker.WorldMaker;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+/**
+ * A world loaded from one of the world definitions shipped in the <tt>worlds</tt> directory, for use
+ * by benchmarks. The world is made and run from a fixed seed, so each run of a benchmark sees the
+ * same world and population. The world is run for a number of ticks before measurement starts so
+ * that it has a population.
+ */
+class BenchmarkWorld {
+
+    private static final int WIDTH = 400;
+    private static final int HEIGHT = 250;
+    private static final long SEED = 1;
+
+    private final Configuration config = new Configuration();
+    private final World world;
+    private final WorldTicker ticker;
+
+    BenchmarkWorld(String name, int warmupTicks) throws IOException, SAXException {
+        this(name, null, warmupTicks);
+    }
+
+    /**
+     * Construct a world seeded with organisms from one of the recipes shipped in the
+     * <tt>recipes</tt> directory.
+     *
+     * @param name the name of the world definition
+     * @param recipe the name of the recipe to seed organisms from, or null to use the world's seed
+     * recipe
+     * @param warmupTicks the number of ticks to run before measurement
+     */
+    BenchmarkWorld(String name, String recipe, int warmupTicks) throws IOException, SAXException {
+        WorldMaker maker = new WorldMaker(new Space(WIDTH, HEIGHT), config);
+        maker.setSeed(SEED);
+        Path path = Paths.get("worlds", name + ".xml");
+        try (InputStream input = Files.newInputStream(path)) {
+            new Loader().load(maker, config, name, new InputSource(input));
+        }
+        world = maker.make();
+        if (recipe != null) {
+            try (InputStream input = Files.newInputStream(Paths.get("recipes", recipe + ".xml"))) {
+                config.setSeedRecipe(new RecipeSaver(world).load(new InputSource(input)));
+            }
+        }
+        ticker = new WorldTicker(world, config);
+        ticker.setSeed(SEED);
+        ticker.addTickListener(() -> maker.process(world, ticker.getTime()));
+        for (int i = 0; i < warmupTicks; i++) {
+            ticker.tick();
+        }
+    }
+
+    Configuration getConfig() {
+        return config;
+    }
+
+    World getWorld() {
+        return world;
+    }
+
+    WorldTicker getTicker() {
+        return ticker;
+    }
+}
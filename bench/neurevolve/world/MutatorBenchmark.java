@@ -0,0 +1,50 @@
+package neurevolve.world;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import neurevolve.organism.Recipe;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the replication of recipes of several sizes at no, normal and high mutation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MutatorBenchmark {
+
+    @Param({"20", "200", "1000"})
+    private int size;
+
+    @Param({"0", "20", "200"})
+    private int mutationRate;
+
+    private byte[] instructions;
+    private Mutator mutator;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(31);
+        instructions = new byte[size];
+        random.nextBytes(instructions);
+        mutator = new Mutator(mutationRate);
+    }
+
+    @Benchmark
+    public Recipe copyInstructions() {
+        return mutator.copyInstructions(instructions, size, 0);
+    }
+}
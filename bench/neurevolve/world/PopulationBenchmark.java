@@ -0,0 +1,41 @@
+package neurevolve.world;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.SAXException;
+
+/**
+ * Measures copying the population of the default world once it is established.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PopulationBenchmark {
+
+    private static final int WARMUP_TICKS = 2000;
+
+    private Population population;
+
+    @Setup
+    public void setup() throws IOException, SAXException {
+        population = new BenchmarkWorld("_default", WARMUP_TICKS).getWorld().getPopulation();
+    }
+
+    @Benchmark
+    public Population copy() {
+        return population.copy();
+    }
+}
@@ -0,0 +1,57 @@
+package neurevolve.world;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import neurevolve.organism.Recipe;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+/**
+ * Measures saving and loading each of the shipped recipes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecipeSaverBenchmark {
+
+    @Param({"_default", "complex", "lots_of_inputs", "with_attack"})
+    private String recipeName;
+
+    private RecipeSaver saver;
+    private String xml;
+    private Recipe recipe;
+
+    @Setup
+    public void setup() throws IOException, SAXException {
+        saver = new RecipeSaver(new BenchmarkWorld("_default", 0).getWorld());
+        xml = new String(Files.readAllBytes(Paths.get("recipes", recipeName + ".xml")), "UTF-8");
+        recipe = saver.load(new InputSource(new StringReader(xml)));
+    }
+
+    @Benchmark
+    public String save() {
+        return saver.save(recipe);
+    }
+
+    @Benchmark
+    public Recipe load() throws SAXException {
+        return saver.load(new InputSource(new StringReader(xml)));
+    }
+}
@@ -0,0 +1,61 @@
+package neurevolve.world;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.SAXException;
+
+/**
+ * Measures a full tick of each of the shipped worlds, along with the parts of a tick that visit
+ * every position. Each iteration starts from a freshly loaded world so that the population at the
+ * start of each iteration is comparable.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorldTickerBenchmark {
+
+    private static final int WARMUP_TICKS = 500;
+
+    @Param({"_default", "amazing", "hilly", "nuclear_winter", "wall", "walled"})
+    private String world;
+
+    private WorldTicker ticker;
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException, SAXException {
+        ticker = new BenchmarkWorld(world, WARMUP_TICKS).getTicker();
+    }
+
+    @Benchmark
+    public WorldTicker tick() {
+        ticker.tick();
+        return ticker;
+    }
+
+    @Benchmark
+    public WorldTicker growResources() {
+        ticker.growResources();
+        return ticker;
+    }
+
+    @Benchmark
+    public WorldTicker halfLives() {
+        ticker.halfLives();
+        return ticker;
+    }
+}
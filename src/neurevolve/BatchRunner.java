@@ -0,0 +1,296 @@
+package neurevolve;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Optional;
+import neurevolve.maker.Loader;
+import neurevolve.maker.WorldMaker;
+import neurevolve.network.Network;
+import neurevolve.organism.BrainPlanCache;
+import neurevolve.world.Configuration;
+import neurevolve.world.RecipeSaver;
+import neurevolve.world.Space;
+import neurevolve.world.World;
+import neurevolve.world.WorldStatistics;
+import neurevolve.world.WorldTicker;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+/**
+ * A <code>BatchRunner</code> runs a world without a user interface for a given number of ticks or
+ * length of time, as fast as possible. It optionally writes the world's statistics periodically to
+ * a CSV file and reports the simulation throughput when complete.
+ *
+ * <p>
+ * Usage:
+ * <pre>
+ * java -cp Neurevolve.jar neurevolve.BatchRunner --world file [options]
+ *
+ *   --world file          the world definition to load (required)
+ *   --recipe file         the seed recipe to use
+ *   --width n             the width of the world (default 800)
+ *   --height n            the height of the world (default 500)
+ *   --ticks n             the number of ticks to run
+ *   --seconds n           the maximum elapsed time to run for
+ *   --stats file          the CSV file to write statistics to
+ *   --interval n          the number of ticks between statistics rows (default 100)
+ *   --tile-size n         process the population in parallel using tiles of at least this size
+ *   --sense-think-act     process the population in sense, think and act phases
+ *   --compile-brains      compile the brains of common recipes
+ *   --incremental         only recalculate neurons whose sources have changed
+ *   --eliminate-dead      do not evaluate neurons that cannot influence any activity
+ *   --statistics level    record neuron ranges: full, sampled or off (default full); off omits
+ *                         the complexity column from the statistics file
+ *   --sample-period n     the number of activations between sampled ranges (default 10)
+ * </pre>
+ * At least one of {@code --ticks} and {@code --seconds} must be given.
+ */
+public class BatchRunner {
+
+    private static final String USAGE = "Usage: BatchRunner --world file [--recipe file] "
+            + "[--width n] [--height n] [--ticks n] [--seconds n] [--stats file] [--interval n] "
+            + "[--tile-size n] [--sense-think-act] [--compile-brains] [--incremental] "
+            + "[--eliminate-dead] [--statistics full|sampled|off] [--sample-period n]";
+
+    private Path worldPath = null;
+    private Optional<Path> recipePath = Optional.empty();
+    private int width = 800;
+    private int height = 500;
+    private long maxTicks = 0;
+    private long maxSeconds = 0;
+    private Optional<Path> statsPath = Optional.empty();
+    private int interval = 100;
+    private int tileSize = 0;
+    private boolean senseThinkAct = false;
+    private boolean compileBrains = false;
+    private boolean incremental = false;
+    private boolean eliminateDead = false;
+    private Network.Statistics statistics = Network.Statistics.FULL;
+    private int samplePeriod = Network.DEFAULT_SAMPLE_PERIOD;
+
+    private long ticks = 0;
+    private long organismUpdates = 0;
+    private long elapsedNanos = 0;
+
+    public static void main(String[] args) {
+        BatchRunner runner = new BatchRunner();
+        try {
+            runner.parseArguments(args);
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+        try (PrintWriter output = new PrintWriter(System.out)) {
+            runner.run(output);
+        } catch (IOException | SAXException ex) {
+            System.err.println(ex.getMessage());
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Set the options for the run from command line arguments.
+     *
+     * @param args the command line arguments
+     * @throws IllegalArgumentException if the arguments are not valid
+     */
+    public void parseArguments(String... args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--world":
+                    worldPath = Paths.get(value(args, ++i));
+                    break;
+                case "--recipe":
+                    recipePath = Optional.of(Paths.get(value(args, ++i)));
+                    break;
+                case "--width":
+                    width = positive(args, ++i);
+                    break;
+                case "--height":
+                    height = positive(args, ++i);
+                    break;
+                case "--ticks":
+                    maxTicks = positive(args, ++i);
+                    break;
+                case "--seconds":
+                    maxSeconds = positive(args, ++i);
+                    break;
+                case "--stats":
+                    statsPath = Optional.of(Paths.get(value(args, ++i)));
+                    break;
+                case "--interval":
+                    interval = positive(args, ++i);
+                    break;
+                case "--tile-size":
+                    tileSize = positive(args, ++i);
+                    if (tileSize < WorldTicker.MIN_TILE_SIZE)
+                        throw new IllegalArgumentException("Tile size must be at least "
+                                + WorldTicker.MIN_TILE_SIZE);
+                    break;
+                case "--sense-think-act":
+                    senseThinkAct = true;
+                    break;
+                case "--compile-brains":
+                    compileBrains = true;
+                    break;
+                case "--incremental":
+                    incremental = true;
+                    break;
+                case "--eliminate-dead":
+                    eliminateDead = true;
+                    break;
+                case "--statistics":
+                    statistics = statistics(args, ++i);
+                    break;
+                case "--sample-period":
+                    samplePeriod = positive(args, ++i);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (worldPath == null)
+            throw new IllegalArgumentException("No world file given");
+        if (maxTicks == 0 && maxSeconds == 0)
+            throw new IllegalArgumentException("No tick count or time limit given");
+    }
+
+    private String value(String[] args, int index) {
+        if (index >= args.length)
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        return args[index];
+    }
+
+    private int positive(String[] args, int index) {
+        try {
+            int value = Integer.parseInt(value(args, index));
+            if (value <= 0)
+                throw new IllegalArgumentException("Value for " + args[index - 1] + " must be positive");
+            return value;
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Illegal value for " + args[index - 1]);
+        }
+    }
+
+    private Network.Statistics statistics(String[] args, int index) {
+        String level = value(args, index);
+        try {
+            return Network.Statistics.valueOf(level.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Illegal value for " + args[index - 1]);
+        }
+    }
+
+    /**
+     * Load the world and run it until the tick count or time limit is reached. Statistics are
+     * written to the statistics file, if one was given, and a summary of the throughput is written
+     * to the given output.
+     *
+     * @param output the writer to report the throughput to
+     * @throws IOException if a file cannot be read or written
+     * @throws SAXException if the world or recipe cannot be parsed
+     */
+    public void run(PrintWriter output) throws IOException, SAXException {
+        Configuration config = new Configuration();
+        WorldMaker maker = new WorldMaker(new Space(width, height), config);
+        try (InputStream input = Files.newInputStream(worldPath)) {
+            new Loader().load(maker, config, worldPath.getFileName().toString(), new InputSource(input));
+        }
+        World world = maker.make();
+        if (recipePath.isPresent()) {
+            try (InputStream input = Files.newInputStream(recipePath.get())) {
+                config.setSeedRecipe(new RecipeSaver(world).load(new InputSource(input)));
+            }
+        }
+        WorldTicker ticker = new WorldTicker(world, config);
+        ticker.addTickListener(() -> maker.process(world, ticker.getTime()));
+        ticker.setTileSize(tileSize);
+        ticker.setSenseThinkAct(senseThinkAct);
+        config.setCompileBrains(compileBrains);
+        config.setIncremental(incremental);
+        config.setEliminateDeadNeurons(eliminateDead);
+        config.setStatistics(statistics);
+        config.setSamplePeriod(samplePeriod);
+        if (statsPath.isPresent()) {
+            try (Writer stats = Files.newBufferedWriter(statsPath.get())) {
+                run(ticker, new PrintWriter(stats));
+            }
+        } else {
+            run(ticker, null);
+        }
+        output.printf("Ticks: %d%n", ticks);
+        output.printf("Seconds: %.3f%n", getElapsedSeconds());
+        output.printf("Ticks/sec: %.1f%n", getTicksPerSecond());
+        output.printf("Organism-updates/sec: %.1f%n", getOrganismUpdatesPerSecond());
+        BrainPlanCache brainPlans = world.getBrainPlanCache();
+        output.printf("Brain plans: %d cached, %.1f%% hits, %d evicted%n", brainPlans.size(),
+                100 * brainPlans.getHitRate(), brainPlans.getEvictions());
+        output.flush();
+    }
+
+    private void run(WorldTicker ticker, PrintWriter stats) {
+        if (stats != null)
+            stats.println("time,year,population,"
+                    + (statistics == Network.Statistics.OFF ? "" : "complexity,")
+                    + "age,size,energy,descendents,sensor_hits,sensor_misses");
+        long start = System.nanoTime();
+        long limit = maxSeconds * 1_000_000_000L;
+        while ((maxTicks == 0 || ticks < maxTicks)
+                && (maxSeconds == 0 || System.nanoTime() - start < limit)) {
+            ticker.tick();
+            ticks++;
+            WorldStatistics tickStats = ticker.getStats();
+            organismUpdates += (long) tickStats.getPopulation();
+            if (stats != null && ticks % interval == 0)
+                writeStats(stats, tickStats);
+        }
+        elapsedNanos = System.nanoTime() - start;
+        if (stats != null)
+            stats.flush();
+    }
+
+    private void writeStats(PrintWriter stats, WorldStatistics tickStats) {
+        stats.printf("%d,%d,%.0f,", tickStats.getTime(), tickStats.getYear(),
+                tickStats.getPopulation());
+        if (tickStats.isComplexityRecorded())
+            stats.printf("%.3f,", tickStats.getAverageComplexity());
+        stats.printf("%.3f,%.3f,%.3f,%.3f,%d,%d%n", tickStats.getAverageAge(),
+                tickStats.getAverageSize(), tickStats.getAverageEnergy(),
+                tickStats.getAverageDescendents(),
+                tickStats.getSensorHits(), tickStats.getSensorMisses());
+    }
+
+    /**
+     * Get the number of ticks completed by the last run.
+     *
+     * @return the number of ticks
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    public double getElapsedSeconds() {
+        return elapsedNanos / 1e9;
+    }
+
+    public double getTicksPerSecond() {
+        return elapsedNanos == 0 ? 0 : ticks / getElapsedSeconds();
+    }
+
+    /**
+     * Get the rate at which organisms were processed in the last run. Each surviving organism
+     * processed in a tick counts as one update.
+     *
+     * @return the number of organism updates per second
+     */
+    public double getOrganismUpdatesPerSecond() {
+        return elapsedNanos == 0 ? 0 : organismUpdates / getElapsedSeconds();
+    }
+}
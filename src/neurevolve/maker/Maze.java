@@ -20,7 +20,7 @@ public class Maze {
     private final int width;
     private final int height;
     private final List<Path> paths = new ArrayList<>();
-    private final Random random = new Random();
+    private final Random random;
     private final Set<Position> visited = new HashSet<>();
     private final Deque<Position> stack = new LinkedList<>();
 
@@ -128,8 +128,20 @@ public class Maze {
      * @param height the number of cells vertically
      */
     public Maze(int width, int height) {
+        this(width, height, new Random());
+    }
+
+    /**
+     * Construct a maze using a given source of randomness.
+     *
+     * @param width the number of cells horizontally
+     * @param height the number of cells vertically
+     * @param random the source of randomness
+     */
+    public Maze(int width, int height, Random random) {
         this.width = width;
         this.height = height;
+        this.random = random;
         generateMaze();
     }
 
@@ -63,6 +63,16 @@ public class WorldMaker {
         this.config = config;
     }
 
+    /**
+     * Set the seed of the random number generator used to place pools and generate mazes, so that
+     * the same world is made in repeated runs.
+     *
+     * @param seed the initial seed
+     */
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+
     /**
      * Create an acid element.
      *
@@ -257,7 +267,7 @@ public class WorldMaker {
             int mazeHeight = (space.getHeight() - wallWidth) / cellSize;
             int gapX = (space.getWidth() - mazeWidth * cellSize - wallWidth) / 2;
             int gapY = (space.getHeight() - mazeHeight * cellSize - wallWidth) / 2;
-            Maze maze = new Maze(mazeWidth, mazeHeight);
+            Maze maze = new Maze(mazeWidth, mazeHeight, random);
             for (int mx = 0; mx <= mazeWidth; mx++) {
                 for (int my = 0; my <= mazeHeight; my++) {
                     if (mx < mazeWidth && maze.hasWall(mx, my, Maze.Direction.SOUTH)) {
@@ -0,0 +1,27 @@
+package neurevolve.network;
+
+/**
+ * A generated implementation of {@link Network#activate} for a single network topology. The
+ * topology (thresholds, weights, sources and delays) is fixed in the generated code. The state of
+ * the network being activated is passed on each call so that a single implementation can be shared
+ * by all networks with the same topology.
+ *
+ * <p>
+ * This interface is public only so that classes generated by {@link NetworkCompiler} can implement
+ * it. It should not be implemented otherwise.
+ */
+public interface CompiledActivation {
+
+    /**
+     * Activate each neuron in the network in turn.
+     *
+     * @param values the delay buffers of all neurons
+     * @param valueIndex the current index into each neuron's delay buffer
+     * @param activated the number of neurons that have previously been activated
+     * @param inputs the external inputs of the network
+     * @param activities the activity of each neuron, or {@code null} if it has none
+     * @param function the activation function of the network
+     */
+    void activate(int[] values, int[] valueIndex, int activated, Input[] inputs,
+            Activity[] activities, ActivationFunction function);
+}
@@ -0,0 +1,46 @@
+package neurevolve.network;
+
+/**
+ * A <code>CompiledNetwork</code> is the result of compiling the topology of a {@link Network} using
+ * a {@link NetworkCompiler}. It can be shared by any number of networks with the same topology
+ * through {@link Network#useCompiled}.
+ */
+public final class CompiledNetwork {
+
+    private final CompiledActivation activation;
+    private final int size;
+    private final int synapseCount;
+    private final int inputCount;
+    private final int valueCount;
+
+    CompiledNetwork(CompiledActivation activation, Topology topology) {
+        this.activation = activation;
+        this.size = topology.size;
+        this.synapseCount = topology.synapseCount;
+        this.inputCount = topology.inputCount;
+        this.valueCount = topology.getValueCount();
+    }
+
+    CompiledActivation getActivation() {
+        return activation;
+    }
+
+    /**
+     * Check if this compiled network has the given shape.
+     */
+    boolean fits(int size, int synapseCount, int inputCount, int valueCount) {
+        return this.size == size
+                && this.synapseCount == synapseCount
+                && this.inputCount == inputCount
+                && this.valueCount == valueCount;
+    }
+
+    /**
+     * Get the number of neurons in the compiled network.
+     *
+     * @return the number of neurons
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -1,16 +1,114 @@
 package neurevolve.network;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import static neurevolve.network.Neuron.WEIGHT_DIVISOR;
 
 /**
  * A self-contained network of neurons. Neurons may have previous neurons in the network as input.
  * Links to neurons later in the network are not allowed.
+ *
+ * <p>
+ * The network is held as a set of flat arrays rather than as a graph of {@link Neuron} objects so
+ * that activation is a single tight loop over contiguous memory. The semantics of each neuron are
+ * identical to those of {@link Neuron}. Because inputs, links and delays can only be added to the
+ * last neuron, the synapses and delay buffers of each neuron are always stored contiguously and in
+ * neuron order.
+ *
+ * <p>
+ * The structure of the network is held in a {@link Topology}, separately from the values produced
+ * by activating it. Networks built from the same recipe can share a topology using
+ * {@link #getTopology} and {@link #Network(ActivationFunction, Topology)}, so that each network
+ * holds only its own values, inputs and activities.
+ *
+ * <p>
+ * When activated incrementally using {@link #activate(boolean)}, an interpreted network only
+ * recalculates a neuron if one of its sources has changed since the previous activation: an input
+ * returned a different value or a linked neuron's output changed. Otherwise the neuron's previous
+ * value is stored again and its activity checked as normal. The results are identical to full
+ * evaluation.
+ *
+ * <p>
+ * Once a network is built, {@link #eliminateDeadNeurons} removes the neurons that cannot influence
+ * any activity so that they are no longer evaluated. The network continues to report its size and
+ * values by the original neuron indices, with eliminated neurons having a value of zero.
+ *
+ * <p>
+ * The range of values taken by each neuron is recorded after activation according to the
+ * {@link Statistics} level passed to {@link #activate(boolean, Statistics, int)}, so that activation
+ * itself carries no bookkeeping. The ranges are only used to report the complexity of networks. A
+ * network activated with statistics off keeps the ranges from its last recorded activation.
  */
 public class Network {
 
+    /**
+     * The level at which the range of each neuron's values is recorded.
+     */
+    public enum Statistics {
+        /**
+         * Record the value of every neuron on every activation.
+         */
+        FULL,
+        /**
+         * Record the value of every neuron on one in every sample period activations, starting with
+         * the first.
+         */
+        SAMPLED,
+        /**
+         * Never record values. The ranges, and hence the total activity switches, are those of the
+         * last recorded activation, or zero if no activation has been recorded.
+         */
+        OFF
+    }
+
+    /**
+     * The default number of activations between samples.
+     */
+    public static final int DEFAULT_SAMPLE_PERIOD = 10;
+
+    private static final int INITIAL_CAPACITY = 8;
+
     private final ActivationFunction function;
-    private final List<Neuron> neurons = new ArrayList<>();
+    private Topology topology;
+
+    /**
+     * The number of neurons, from the start of the network, that have been activated at least once.
+     */
+    private int activated = 0;
+
+    /**
+     * The number of times the network has been activated, used to choose activations to sample.
+     */
+    private int activations = 0;
+
+    private int[] minValues;
+    private int[] maxValues;
+    private Input[] inputs;
+    private Activity[] activities;
+
+    /**
+     * The stored values for neuron {@code n} form a ring buffer at indices
+     * {@code topology.valueStart[n]} up to (but not including) {@code topology.valueStart[n + 1]}.
+     * The current value is at offset {@code valueIndex[n]} within the buffer.
+     */
+    private int[] valueIndex;
+    private int[] values;
+
+    /**
+     * A generated activation for this network's topology, or {@code null} if the network is
+     * interpreted.
+     */
+    private CompiledNetwork compiled = null;
+
+    /**
+     * The state for incremental evaluation. The neurons from the start of the network up to
+     * {@code evaluated} have a valid calculated value and valid input values for their synapses.
+     * {@code outputChanged[n]} is set if the output of neuron {@code n} changed during the current
+     * activation.
+     */
+    private int evaluated = 0;
+    private int[] calculated = null;
+    private boolean[] outputChanged = null;
+    private int[] inputValues = null;
 
     /**
      * Construct a <code>Network</code> that uses the given {@link ActivationFunction}
@@ -19,23 +117,135 @@ public class Network {
      */
     public Network(ActivationFunction function) {
         this.function = function;
+        this.topology = new Topology();
+        minValues = new int[INITIAL_CAPACITY];
+        maxValues = new int[INITIAL_CAPACITY];
+        inputs = new Input[INITIAL_CAPACITY];
+        activities = new Activity[INITIAL_CAPACITY];
+        valueIndex = new int[INITIAL_CAPACITY];
+        values = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Construct a <code>Network</code> with a shared topology. The network's inputs and activities
+     * must be set using {@link #setInput} and {@link #setActivity(int, Activity)} before it is
+     * activated.
+     *
+     * @param function the function to use to activate the neurons in the network
+     * @param topology the topology of the network, as returned by {@link #getTopology}
+     */
+    public Network(ActivationFunction function, Topology topology) {
+        int size = topology.size();
+        this.function = function;
+        this.topology = topology;
+        minValues = new int[size];
+        maxValues = new int[size];
+        Arrays.fill(minValues, Integer.MAX_VALUE);
+        Arrays.fill(maxValues, Integer.MIN_VALUE);
+        inputs = new Input[topology.getInputCount()];
+        activities = new Activity[size];
+        valueIndex = new int[size];
+        values = new int[topology.getValueCount()];
+    }
+
+    /**
+     * Get the topology of this network so that it can be shared with other networks. Once shared,
+     * the topology is never changed: if the structure of this network is subsequently changed the
+     * network takes its own copy of the topology.
+     *
+     * @return the topology of the network
+     */
+    public Topology getTopology() {
+        topology.share();
+        return topology;
+    }
+
+    /**
+     * Set an input of a network constructed with a shared topology.
+     *
+     * @param index the index of the input, in the order the inputs were added
+     * @param input the input
+     * @throws IndexOutOfBoundsException if there is no input at the index
+     */
+    public void setInput(int index, Input input) {
+        if (index < 0 || index >= topology.inputCount)
+            throw new IndexOutOfBoundsException("Out of range input index");
+        inputs[index] = input;
+    }
+
+    /**
+     * Set the activity of a neuron in a network constructed with a shared topology.
+     *
+     * @param neuron the index of the neuron
+     * @param activity the activity to fire
+     * @throws IllegalArgumentException if the topology has no activity for the neuron
+     */
+    public void setActivity(int neuron, Activity activity) {
+        if (!topology.hasActivity(neuron))
+            throw new IllegalArgumentException("Neuron has no activity");
+        activities[neuron] = activity;
+    }
+
+    /**
+     * Get an input of the network.
+     *
+     * @param index the index of the input, in the order the inputs were added
+     * @return the input
+     */
+    public Input getInput(int index) {
+        return inputs[index];
+    }
+
+    /**
+     * Get the activity of a neuron.
+     *
+     * @param neuron the index of the neuron
+     * @return the activity of the neuron, or null if it has none
+     */
+    public Activity getActivity(int neuron) {
+        return activities[neuron];
     }
 
     public int[] copyValues() {
-        return neurons.stream().mapToInt(Neuron::getValue).toArray();
+        int[] copy = new int[size()];
+        for (int n = 0; n < copy.length; n++) {
+            int index = topology.indexOf(n);
+            copy[n] = index < 0 ? 0 : value(index);
+        }
+        return copy;
     }
 
+    /**
+     * Get the range of values taken by each neuron.
+     *
+     * @return the ranges of values recorded so far, by neuron index
+     */
     public int[] copyRanges() {
-        return neurons.stream().mapToInt(Neuron::getValueRange).toArray();
+        int[] copy = new int[size()];
+        for (int n = 0; n < copy.length; n++) {
+            int index = topology.indexOf(n);
+            copy[n] = index < 0 ? 0 : valueRange(index);
+        }
+        return copy;
     }
 
     /**
      * Get the size of network.
      *
-     * @return the number of neurons in the network
+     * @return the number of neurons in the network, including any that have been eliminated
      */
     public int size() {
-        return neurons.size();
+        return topology.getNeuronCount();
+    }
+
+    /**
+     * Get the number of neurons with an activity. This is the maximum number of activities that
+     * can be performed in a single activation of the network.
+     *
+     * @return the number of neurons with an activity
+     */
+    public int getActivityCount() {
+        return topology.activityCount;
     }
 
     /**
@@ -44,14 +254,52 @@ public class Network {
      * @return <code>true</code> if <tt>size() == 0</tt>
      */
     public boolean isEmpty() {
-        return neurons.isEmpty();
+        return size() == 0;
+    }
+
+    /**
+     * Prepare to change the structure of the network.
+     *
+     * @throws IllegalStateException if dead neurons have been eliminated from the network
+     */
+    private void change() {
+        if (topology.isPruned())
+            throw new IllegalStateException("Attempt to change network after eliminating neurons");
+        compiled = null;
+        evaluated = 0;
+        topology = topology.unshared();
     }
 
     /**
      * Add a new neuron at the end of the network
      */
     public void addNeuron() {
-        neurons.add(new Neuron(function));
+        change();
+        int size = topology.size;
+        if (size == valueIndex.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, size * 2);
+            minValues = Arrays.copyOf(minValues, capacity);
+            maxValues = Arrays.copyOf(maxValues, capacity);
+            activities = Arrays.copyOf(activities, capacity);
+            valueIndex = Arrays.copyOf(valueIndex, capacity);
+        }
+        activities[size] = null;
+        minValues[size] = Integer.MAX_VALUE;
+        maxValues[size] = Integer.MIN_VALUE;
+        valueIndex[size] = 0;
+        growValues(1);
+        topology.addNeuron();
+    }
+
+    /**
+     * Make room for a number of zeroed values at the end of the value buffer.
+     */
+    private void growValues(int count) {
+        int start = topology.valueStart[topology.size];
+        int end = start + count;
+        if (end > values.length)
+            values = Arrays.copyOf(values, Math.max(end, values.length * 2));
+        Arrays.fill(values, start, end, 0);
     }
 
     /**
@@ -61,7 +309,9 @@ public class Network {
      * @throws IllegalStateException if the network is empty
      */
     public void setThreshold(int threshold) {
-        lastNeuron().setThreshold(threshold);
+        lastNeuron();
+        change();
+        topology.setThreshold(threshold);
     }
 
     /**
@@ -72,7 +322,12 @@ public class Network {
      * @throws IllegalStateException if the network is empty
      */
     public void addInput(Input input, int weight) {
-        lastNeuron().addInput(input, weight);
+        lastNeuron();
+        change();
+        int index = topology.addInput(weight);
+        if (index >= inputs.length)
+            inputs = Arrays.copyOf(inputs, Math.max(INITIAL_CAPACITY, index * 2));
+        inputs[index] = input;
     }
 
     /**
@@ -81,7 +336,10 @@ public class Network {
      * @param delay the number of activations to delay value output
      */
     public void addDelay(int delay) {
-        lastNeuron().addDelay(delay);
+        lastNeuron();
+        change();
+        growValues(delay);
+        topology.addDelay(delay);
     }
 
     /**
@@ -97,7 +355,8 @@ public class Network {
     public void addLink(int from, int weight) {
         if (from < 0 || from >= size() - 1)
             throw new IndexOutOfBoundsException("Attempt to link to same or forward neuron");
-        lastNeuron().addInput(() -> getValue(from), weight);
+        change();
+        topology.addSynapse(from, weight);
     }
 
     /**
@@ -108,14 +367,238 @@ public class Network {
      * @throws IllegalStateException if the network is empty
      */
     public void setActivity(Activity activity) {
-        lastNeuron().setActivity(activity);
+        int neuron = lastNeuron();
+        change();
+        topology.setActivity();
+        activities[neuron] = activity;
+    }
+
+    /**
+     * Eliminate the neurons that cannot influence any activity: neurons without an activity whose
+     * output only feeds other such neurons. Their synapses, inputs and delays are removed along
+     * with them. The remaining inputs are renumbered in the order they were added. The structure of
+     * the network cannot be changed once neurons have been eliminated.
+     */
+    public void eliminateDeadNeurons() {
+        Topology pruned = topology.withoutDeadNeurons();
+        if (pruned == topology)
+            return;
+        int size = pruned.size;
+        int[] prunedMinValues = new int[size];
+        int[] prunedMaxValues = new int[size];
+        Input[] prunedInputs = new Input[pruned.inputCount];
+        Activity[] prunedActivities = new Activity[size];
+        int[] prunedValueIndex = new int[size];
+        int[] prunedValues = new int[pruned.getValueCount()];
+        int input = 0;
+        int prunedActivated = 0;
+        for (int n = 0; n < topology.size; n++) {
+            int index = pruned.indexOf(n);
+            if (index < 0)
+                continue;
+            for (int s = topology.synapseStart[n]; s < topology.synapseStart[n + 1]; s++) {
+                if (topology.sources[s] < 0)
+                    prunedInputs[input++] = inputs[-1 - topology.sources[s]];
+            }
+            prunedMinValues[index] = minValues[n];
+            prunedMaxValues[index] = maxValues[n];
+            prunedActivities[index] = activities[n];
+            prunedValueIndex[index] = valueIndex[n];
+            System.arraycopy(values, topology.valueStart[n], prunedValues, pruned.valueStart[index],
+                    topology.valueStart[n + 1] - topology.valueStart[n]);
+            if (n < activated)
+                prunedActivated++;
+        }
+        topology = pruned;
+        minValues = prunedMinValues;
+        maxValues = prunedMaxValues;
+        inputs = prunedInputs;
+        activities = prunedActivities;
+        valueIndex = prunedValueIndex;
+        values = prunedValues;
+        activated = prunedActivated;
+        compiled = null;
+        evaluated = 0;
     }
 
     /**
-     * Activate the network. This activates each neuron in the network in turn.
+     * Activate the network. This activates each neuron in the network in turn. The value of each
+     * neuron is determined by adding the value of all weighted inputs, subtracting the threshold and
+     * then applying the activation function. If the resulting value is not negative, the neuron's
+     * activity is fired.
      */
     public void activate() {
-        neurons.forEach(Neuron::activate);
+        activate(false);
+    }
+
+    /**
+     * Activate the network, optionally only recalculating the neurons whose sources have changed
+     * since the previous activation. Incremental activation only applies to interpreted networks
+     * and gives the same results as full activation.
+     *
+     * @param incremental true to only recalculate neurons whose sources have changed
+     */
+    public void activate(boolean incremental) {
+        activate(incremental, Statistics.FULL, DEFAULT_SAMPLE_PERIOD);
+    }
+
+    /**
+     * Activate the network, recording the range of each neuron's values at a given statistics
+     * level.
+     *
+     * @param incremental true to only recalculate neurons whose sources have changed
+     * @param statistics the level at which the range of each neuron's values is recorded
+     * @param samplePeriod the number of activations between samples when the level is
+     * {@link Statistics#SAMPLED}
+     */
+    public void activate(boolean incremental, Statistics statistics, int samplePeriod) {
+        int count = topology.size;
+        if (compiled == null && incremental) {
+            interpretIncrementally(count);
+        } else {
+            evaluated = 0;
+            if (compiled != null)
+                compiled.getActivation().activate(values, valueIndex, activated, inputs, activities,
+                        function);
+            else
+                interpret(count);
+        }
+        activated = count;
+        if (isSampled(statistics, samplePeriod))
+            recordValues(count);
+        activations++;
+    }
+
+    private boolean isSampled(Statistics statistics, int samplePeriod) {
+        switch (statistics) {
+            case FULL:
+                return true;
+            case SAMPLED:
+                return activations % samplePeriod == 0;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Record the value stored by each neuron in the activation just completed in the neuron's range.
+     * The stored value is the one before the neuron's current index in its ring buffer.
+     */
+    private void recordValues(int count) {
+        int[] valueStart = topology.valueStart;
+        for (int n = 0; n < count; n++) {
+            int index = valueIndex[n] == 0 ? valueStart[n + 1] - valueStart[n] : valueIndex[n];
+            int value = values[valueStart[n] + index - 1];
+            if (value < minValues[n])
+                minValues[n] = value;
+            if (value > maxValues[n])
+                maxValues[n] = value;
+        }
+    }
+
+    private void interpretIncrementally(int count) {
+        if (calculated == null || calculated.length < count) {
+            calculated = new int[count];
+            outputChanged = new boolean[count];
+            evaluated = 0;
+        }
+        if (inputValues == null || inputValues.length < topology.inputCount) {
+            inputValues = new int[topology.inputCount];
+            evaluated = 0;
+        }
+        int[] thresholds = topology.thresholds;
+        for (int n = 0; n < count; n++) {
+            boolean sourcesChanged = readSources(n) || n >= evaluated;
+            if (sourcesChanged)
+                calculated[n] = function.apply(sumSources(n) - thresholds[n]);
+            int output = value(n);
+            if (sourcesChanged || topology.valueStart[n + 1] - topology.valueStart[n] > 1)
+                storeValue(n, calculated[n]);
+            outputChanged[n] = n >= evaluated || value(n) != output;
+            if (activities[n] != null && value(n) >= 0)
+                activities[n].perform();
+        }
+        evaluated = count;
+    }
+
+    /**
+     * Read the inputs of a neuron into the input values, and check if any of the neuron's sources
+     * have changed since the previous activation.
+     */
+    private boolean readSources(int neuron) {
+        int[] synapseStart = topology.synapseStart;
+        int[] sources = topology.sources;
+        boolean changed = false;
+        for (int s = synapseStart[neuron]; s < synapseStart[neuron + 1]; s++) {
+            int source = sources[s];
+            if (source >= 0) {
+                changed |= outputChanged[source];
+            } else {
+                int input = -1 - source;
+                int value = inputs[input].getValue();
+                changed |= value != inputValues[input];
+                inputValues[input] = value;
+            }
+        }
+        return changed;
+    }
+
+    private int sumSources(int neuron) {
+        int[] synapseStart = topology.synapseStart;
+        int[] sources = topology.sources;
+        int[] weights = topology.weights;
+        int sum = 0;
+        for (int s = synapseStart[neuron]; s < synapseStart[neuron + 1]; s++) {
+            int source = sources[s];
+            int input = source >= 0 ? value(source) : inputValues[-1 - source];
+            sum += input * weights[s] / WEIGHT_DIVISOR;
+        }
+        return sum;
+    }
+
+    private void interpret(int count) {
+        int[] thresholds = topology.thresholds;
+        for (int n = 0; n < count; n++) {
+            storeValue(n, function.apply(sumInputs(n) - thresholds[n]));
+            if (activities[n] != null && value(n) >= 0)
+                activities[n].perform();
+        }
+    }
+
+    private int sumInputs(int neuron) {
+        int[] synapseStart = topology.synapseStart;
+        int[] sources = topology.sources;
+        int[] weights = topology.weights;
+        int sum = 0;
+        for (int s = synapseStart[neuron]; s < synapseStart[neuron + 1]; s++) {
+            int source = sources[s];
+            int input = source >= 0 ? value(source) : inputs[-1 - source].getValue();
+            sum += input * weights[s] / WEIGHT_DIVISOR;
+        }
+        return sum;
+    }
+
+    /**
+     * Store a given value for later recall. On the first activation the value fills the stored
+     * values to ensure delays don't start with zeroed values.
+     */
+    private void storeValue(int neuron, int value) {
+        int start = topology.valueStart[neuron];
+        int length = topology.valueStart[neuron + 1] - start;
+        int index = valueIndex[neuron];
+        if (neuron >= activated)
+            Arrays.fill(values, start, start + length, value);
+        else
+            values[start + index] = value;
+        valueIndex[neuron] = index + 1 == length ? 0 : index + 1;
+    }
+
+    private int value(int neuron) {
+        return values[topology.valueStart[neuron] + valueIndex[neuron]];
+    }
+
+    private int valueRange(int neuron) {
+        return maxValues[neuron] < minValues[neuron] ? 0 : maxValues[neuron] - minValues[neuron];
     }
 
     /**
@@ -123,32 +606,67 @@ public class Network {
      *
      * @param neuron the index of the neuron
      * @return the value of the neuron, set at previous call to {@link #activate} (or 0 if the
-     * network has not been activated.
+     * network has not been activated or the neuron has been eliminated).
      * @throws IndexOutOfBoundsException if <tt>neuron &lt; 0 || neuron &ge; size</tt>
      */
     public int getValue(int neuron) {
         if (neuron < 0 || neuron >= size())
             throw new IndexOutOfBoundsException("Out of range neuron index");
-        return neurons.get(neuron).getValue();
+        int index = topology.indexOf(neuron);
+        return index < 0 ? 0 : value(index);
     }
 
     /**
-     * Get the last neuron added to the network
+     * Get the index of the last neuron added to the network
      */
-    private Neuron lastNeuron() {
-        if (neurons.isEmpty())
+    private int lastNeuron() {
+        if (topology.size == 0)
             throw new IllegalStateException("Attempt to get last neuron from empty network");
         else
-            return neurons.get(neurons.size() - 1);
+            return topology.size - 1;
+    }
+
+    /**
+     * Use a generated activation in place of interpreting the network. The generated activation
+     * must have been compiled from a network with the same topology as this network, which is the
+     * case for networks built from the same recipe. Any subsequent change to the network's topology
+     * reverts it to being interpreted.
+     *
+     * @param compiled the compiled activation to use
+     * @return true if the compiled activation was accepted; false if its shape does not match this
+     * network
+     */
+    public boolean useCompiled(CompiledNetwork compiled) {
+        if (!compiled.fits(topology.size, topology.synapseCount, topology.inputCount,
+                topology.getValueCount()))
+            return false;
+        this.compiled = compiled;
+        return true;
+    }
+
+    /**
+     * Check if the network uses a generated activation.
+     *
+     * @return true if the network is compiled
+     */
+    public boolean isCompiled() {
+        return compiled != null;
     }
 
     /**
-     * Get a measure of the total complex activity of the network over its lifetime.
+     * Get a measure of the total complex activity of the network over its lifetime. Neurons are
+     * counted by their original indices, so eliminated neurons, which are never evaluated, are not
+     * counted.
      *
-     * @return the total number of times a neuron with an activity has switched form not firing to
-     * firing.
+     * @return the number of neurons that have taken more than one value
      */
     public int getTotalActivitySwitches() {
-        return (int) neurons.stream().filter(n -> n.getValueRange() > 0).count();
+        int switches = 0;
+        for (int n = 0; n < size(); n++) {
+            int index = topology.indexOf(n);
+            if (index >= 0 && valueRange(index) > 0)
+                switches++;
+        }
+        return switches;
     }
 }
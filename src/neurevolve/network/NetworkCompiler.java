@@ -0,0 +1,261 @@
+package neurevolve.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.security.CodeSource;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.JavaFileObject.Kind;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * A <code>NetworkCompiler</code> generates a class specialised for the topology of a
+ * {@link Network}. The generated class evaluates each neuron in turn with the thresholds, weights,
+ * sources and delays as constants, so the JIT is able to treat the whole network as straight-line
+ * code. The results are identical to interpreting the network.
+ *
+ * <p>
+ * The class is generated as Java source and compiled in memory using the platform's Java compiler.
+ * If no compiler is available (for example when running on a JRE) or the network is too large then
+ * no compiled network is produced and the network continues to be interpreted.
+ */
+public class NetworkCompiler {
+
+    /**
+     * The largest network that will be compiled.
+     */
+    public static final int MAX_SIZE = 2000;
+
+    /**
+     * The approximate amount of work, in neurons and synapses, generated into each method. This
+     * keeps each method small enough for the JIT to compile.
+     */
+    private static final int METHOD_COST = 120;
+
+    private static final String PACKAGE = "neurevolve.network.generated";
+    private static final String PARAMETERS = "int[] values, int[] valueIndex, int activated, "
+            + "neurevolve.network.Input[] inputs, neurevolve.network.Activity[] activities, "
+            + "neurevolve.network.ActivationFunction function";
+    private static final String ARGUMENTS
+            = "values, valueIndex, activated, inputs, activities, function";
+    private static final AtomicInteger CLASS_COUNT = new AtomicInteger();
+
+    private final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+    /**
+     * Check if networks can be compiled in the current platform.
+     *
+     * @return true if a Java compiler is available
+     */
+    public boolean isAvailable() {
+        return compiler != null;
+    }
+
+    /**
+     * Compile the topology of a network. The topology must be shared, as returned by
+     * {@link Network#getTopology}, so that it cannot change while it is being compiled. Only the
+     * topology is needed, so no network needs to be kept while it is compiled.
+     *
+     * @param topology the topology to compile
+     * @return the compiled network, or <code>Optional.empty()</code> if the topology could not be
+     * compiled
+     */
+    public Optional<CompiledNetwork> compile(Topology topology) {
+        if (!isAvailable() || topology.size > MAX_SIZE)
+            return Optional.empty();
+        String className = "Activation" + CLASS_COUNT.incrementAndGet();
+        String source = generateSource(topology, className);
+        return compileSource(PACKAGE + "." + className, source)
+                .map(activation -> new CompiledNetwork(activation, topology));
+    }
+
+    /**
+     * Generate the source of a class implementing {@link CompiledActivation} for a topology.
+     *
+     * @param topology the topology to generate the class for
+     * @param className the simple name of the generated class
+     * @return the source of the generated class
+     */
+    protected String generateSource(Topology topology, String className) {
+        StringBuilder methods = new StringBuilder();
+        StringBuilder calls = new StringBuilder();
+        int method = 0;
+        int neuron = 0;
+        while (neuron < topology.size) {
+            methods.append("    private static void activate").append(method)
+                    .append("(").append(PARAMETERS).append(") {\n")
+                    .append("        int sum;\n        int value;\n        int index;\n");
+            int cost = 0;
+            while (neuron < topology.size && cost < METHOD_COST) {
+                generateNeuron(methods, topology, neuron);
+                cost += 1 + topology.synapseStart[neuron + 1] - topology.synapseStart[neuron];
+                neuron++;
+            }
+            methods.append("    }\n\n");
+            calls.append("        activate").append(method).append("(").append(ARGUMENTS).append(");\n");
+            method++;
+        }
+        return "package " + PACKAGE + ";\n\n"
+                + "public final class " + className + " implements neurevolve.network.CompiledActivation {\n\n"
+                + "    @Override\n"
+                + "    public void activate(" + PARAMETERS + ") {\n"
+                + calls
+                + "    }\n\n"
+                + methods
+                + "}\n";
+    }
+
+    private void generateNeuron(StringBuilder code, Topology topology, int neuron) {
+        int start = topology.valueStart[neuron];
+        int length = topology.valueStart[neuron + 1] - start;
+        code.append("        sum = 0;\n");
+        for (int s = topology.synapseStart[neuron]; s < topology.synapseStart[neuron + 1]; s++) {
+            int source = topology.sources[s];
+            code.append("        sum += ");
+            if (source >= 0)
+                code.append(valueExpression(topology, source));
+            else
+                code.append("inputs[").append(-1 - source).append("].getValue()");
+            code.append(" * (").append(topology.weights[s]).append(") / ")
+                    .append(Neuron.WEIGHT_DIVISOR).append(";\n");
+        }
+        code.append("        value = function.apply(sum - (").append(topology.thresholds[neuron]).append("));\n");
+        if (length == 1) {
+            code.append("        values[").append(start).append("] = value;\n");
+        } else {
+            code.append("        index = valueIndex[").append(neuron).append("];\n");
+            code.append("        if (activated <= ").append(neuron).append(") java.util.Arrays.fill(values, ")
+                    .append(start).append(", ").append(start + length).append(", value);\n");
+            code.append("        else values[").append(start).append(" + index] = value;\n");
+            code.append("        valueIndex[").append(neuron).append("] = index + 1 == ").append(length)
+                    .append(" ? 0 : index + 1;\n");
+        }
+        if (topology.activities[neuron]) {
+            code.append("        if (").append(valueExpression(topology, neuron))
+                    .append(" >= 0) activities[").append(neuron).append("].perform();\n");
+        }
+    }
+
+    private String valueExpression(Topology topology, int neuron) {
+        int start = topology.valueStart[neuron];
+        if (topology.valueStart[neuron + 1] - start == 1)
+            return "values[" + start + "]";
+        else
+            return "values[" + start + " + valueIndex[" + neuron + "]]";
+    }
+
+    private Optional<CompiledActivation> compileSource(String className, String source) {
+        JavaFileObject sourceFile = new SimpleJavaFileObject(
+                URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension),
+                Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+        Map<String, ByteArrayOutputStream> classFiles = new HashMap<>();
+        try (ForwardingJavaFileManager<StandardJavaFileManager> fileManager
+                = new ClassFileManager(compiler.getStandardFileManager(null, null, null), classFiles)) {
+            List<String> options = Arrays.asList("-classpath", getClassPath(), "-g:none", "-nowarn");
+            boolean success = compiler.getTask(null, fileManager, null, options, null,
+                    Arrays.asList(sourceFile)).call();
+            if (!success)
+                return Optional.empty();
+        } catch (IOException ex) {
+            return Optional.empty();
+        }
+        if (!classFiles.containsKey(className))
+            return Optional.empty();
+        byte[] bytes = classFiles.get(className).toByteArray();
+        try {
+            Class<?> activationClass = new GeneratedClassLoader(className, bytes).loadClass(className);
+            return Optional.of((CompiledActivation) activationClass.getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException ex) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * A file manager that keeps the compiled class files in memory.
+     */
+    private static class ClassFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+        private final Map<String, ByteArrayOutputStream> classFiles;
+
+        public ClassFileManager(StandardJavaFileManager standardManager,
+                Map<String, ByteArrayOutputStream> classFiles) {
+            super(standardManager);
+            this.classFiles = classFiles;
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String name, Kind kind,
+                FileObject sibling) {
+            return new SimpleJavaFileObject(URI.create("bytes:///" + name.replace('.', '/')
+                    + kind.extension), kind) {
+                @Override
+                public OutputStream openOutputStream() {
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    classFiles.put(name, bytes);
+                    return bytes;
+                }
+            };
+        }
+    }
+
+    /**
+     * Get a class path that includes the network classes, which may not be on the system class
+     * path if the application was started from a container.
+     */
+    private String getClassPath() {
+        String classPath = System.getProperty("java.class.path");
+        CodeSource codeSource = CompiledActivation.class.getProtectionDomain().getCodeSource();
+        if (codeSource != null) {
+            try {
+                classPath = new File(codeSource.getLocation().toURI()).getPath()
+                        + File.pathSeparator + classPath;
+            } catch (URISyntaxException | IllegalArgumentException ex) {
+                // use the system class path alone
+            }
+        }
+        return classPath;
+    }
+
+    /**
+     * Each generated class has its own class loader so that it can be unloaded once no network
+     * uses it.
+     */
+    private static class GeneratedClassLoader extends ClassLoader {
+
+        private final String className;
+        private final byte[] bytes;
+
+        public GeneratedClassLoader(String className, byte[] bytes) {
+            super(CompiledActivation.class.getClassLoader());
+            this.className = className;
+            this.bytes = bytes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            if (name.equals(className))
+                return defineClass(name, bytes, 0, bytes.length);
+            else
+                return super.findClass(name);
+        }
+    }
+}
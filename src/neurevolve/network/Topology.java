@@ -0,0 +1,254 @@
+package neurevolve.network;
+
+import java.util.Arrays;
+
+/**
+ * A <code>Topology</code> is the structure of a {@link Network}: its neurons' thresholds, synapses
+ * and delays and which neurons have activities. It holds none of the values produced by activating
+ * a network, so all networks built from the same recipe can share a single topology, with each
+ * network holding only its own values.
+ *
+ * <p>
+ * A topology is built by a network as neurons, synapses and delays are added to it. Once shared
+ * using {@link Network#getTopology} it is never changed again: a network with a shared topology
+ * takes its own copy before changing its structure.
+ *
+ * <p>
+ * Neurons that have no activity and only feed other such neurons cannot influence the behaviour of
+ * a network. {@link #withoutDeadNeurons} builds a topology without them, recording where each of
+ * the original neurons ended up so that networks can continue to report values by the original
+ * neuron indices.
+ */
+public final class Topology {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    /*
+     * The arrays are read directly by Network when activating so are package-private.
+     */
+    int size = 0;
+    int[] thresholds = new int[INITIAL_CAPACITY];
+    boolean[] activities = new boolean[INITIAL_CAPACITY];
+    int activityCount = 0;
+
+    /**
+     * The synapses for neuron {@code n} are at indices {@code synapseStart[n]} up to (but not
+     * including) {@code synapseStart[n + 1]}. A non-negative source is the index of a previous
+     * neuron. A negative source {@code s} is the external input at index {@code -1 - s}.
+     */
+    int[] synapseStart = new int[INITIAL_CAPACITY + 1];
+    int[] sources = new int[INITIAL_CAPACITY];
+    int[] weights = new int[INITIAL_CAPACITY];
+    int synapseCount = 0;
+    int inputCount = 0;
+
+    /**
+     * The stored values for neuron {@code n} are at indices {@code valueStart[n]} up to (but not
+     * including) {@code valueStart[n + 1]} of the network's values.
+     */
+    int[] valueStart = new int[INITIAL_CAPACITY + 1];
+
+    /**
+     * The index in this topology of each neuron of the topology it was built from, or -1 if the
+     * neuron was eliminated. This is {@code null} if no neurons have been eliminated.
+     */
+    int[] neuronIndex = null;
+
+    private volatile boolean shared = false;
+
+    Topology() {
+    }
+
+    private Topology(Topology other) {
+        size = other.size;
+        thresholds = other.thresholds.clone();
+        activities = other.activities.clone();
+        activityCount = other.activityCount;
+        synapseStart = other.synapseStart.clone();
+        sources = other.sources.clone();
+        weights = other.weights.clone();
+        synapseCount = other.synapseCount;
+        inputCount = other.inputCount;
+        valueStart = other.valueStart.clone();
+        neuronIndex = other.neuronIndex;
+    }
+
+    /**
+     * Get the number of neurons in the topology.
+     *
+     * @return the number of neurons
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the number of neurons in the topology this topology was built from, including any that
+     * were eliminated.
+     *
+     * @return the number of original neurons
+     */
+    public int getNeuronCount() {
+        return neuronIndex == null ? size : neuronIndex.length;
+    }
+
+    /**
+     * Get the index in this topology of one of the original neurons.
+     *
+     * @param neuron the index of the original neuron
+     * @return the index of the neuron, or -1 if it was eliminated
+     */
+    int indexOf(int neuron) {
+        return neuronIndex == null ? neuron : neuronIndex[neuron];
+    }
+
+    /**
+     * Get the number of external inputs to the topology.
+     *
+     * @return the number of inputs
+     */
+    public int getInputCount() {
+        return inputCount;
+    }
+
+    /**
+     * Get the total number of values stored by a network with this topology, including the values
+     * held for delays.
+     *
+     * @return the number of values
+     */
+    public int getValueCount() {
+        return valueStart[size];
+    }
+
+    /**
+     * Check if a neuron has an activity.
+     *
+     * @param neuron the index of the neuron
+     * @return true if the neuron has an activity
+     */
+    public boolean hasActivity(int neuron) {
+        return activities[neuron];
+    }
+
+    boolean isShared() {
+        return shared;
+    }
+
+    void share() {
+        shared = true;
+    }
+
+    /**
+     * Get a topology that can be changed: this topology if it has not been shared, otherwise a
+     * copy of it.
+     */
+    Topology unshared() {
+        return shared ? new Topology(this) : this;
+    }
+
+    boolean isPruned() {
+        return neuronIndex != null;
+    }
+
+    /**
+     * Find the neurons that can influence an activity: those with an activity and those linked to
+     * a live neuron. As links only go forward, a single pass from the last neuron is sufficient.
+     */
+    private boolean[] findLiveNeurons() {
+        boolean[] live = new boolean[size];
+        for (int n = size - 1; n >= 0; n--) {
+            if (activities[n])
+                live[n] = true;
+            if (live[n]) {
+                for (int s = synapseStart[n]; s < synapseStart[n + 1]; s++) {
+                    if (sources[s] >= 0)
+                        live[sources[s]] = true;
+                }
+            }
+        }
+        return live;
+    }
+
+    /**
+     * Get a topology without the neurons that cannot influence any activity, along with their
+     * synapses and delays. The inputs of the remaining neurons are renumbered in the order they
+     * were added.
+     *
+     * @return this topology if every neuron is live, otherwise a new topology
+     */
+    Topology withoutDeadNeurons() {
+        boolean[] live = findLiveNeurons();
+        int[] index = new int[size];
+        int liveCount = 0;
+        for (int n = 0; n < size; n++) {
+            index[n] = live[n] ? liveCount++ : -1;
+        }
+        if (liveCount == size)
+            return this;
+        Topology pruned = new Topology();
+        for (int n = 0; n < size; n++) {
+            if (!live[n])
+                continue;
+            pruned.addNeuron();
+            pruned.setThreshold(thresholds[n]);
+            for (int s = synapseStart[n]; s < synapseStart[n + 1]; s++) {
+                if (sources[s] >= 0)
+                    pruned.addSynapse(index[sources[s]], weights[s]);
+                else
+                    pruned.addInput(weights[s]);
+            }
+            pruned.addDelay(valueStart[n + 1] - valueStart[n] - 1);
+            if (activities[n])
+                pruned.setActivity();
+        }
+        pruned.neuronIndex = index;
+        return pruned;
+    }
+
+    void addNeuron() {
+        if (size == thresholds.length) {
+            int capacity = thresholds.length * 2;
+            thresholds = Arrays.copyOf(thresholds, capacity);
+            activities = Arrays.copyOf(activities, capacity);
+            synapseStart = Arrays.copyOf(synapseStart, capacity + 1);
+            valueStart = Arrays.copyOf(valueStart, capacity + 1);
+        }
+        thresholds[size] = 0;
+        activities[size] = false;
+        synapseStart[size + 1] = synapseCount;
+        size++;
+        valueStart[size] = valueStart[size - 1] + 1;
+    }
+
+    void setThreshold(int threshold) {
+        thresholds[size - 1] = threshold;
+    }
+
+    void addSynapse(int source, int weight) {
+        if (synapseCount == sources.length) {
+            sources = Arrays.copyOf(sources, synapseCount * 2);
+            weights = Arrays.copyOf(weights, synapseCount * 2);
+        }
+        sources[synapseCount] = source;
+        weights[synapseCount] = weight;
+        synapseCount++;
+        synapseStart[size] = synapseCount;
+    }
+
+    int addInput(int weight) {
+        int input = inputCount++;
+        addSynapse(-1 - input, weight);
+        return input;
+    }
+
+    void addDelay(int delay) {
+        valueStart[size] += delay;
+    }
+
+    void setActivity() {
+        if (!activities[size - 1])
+            activityCount++;
+        activities[size - 1] = true;
+    }
+}
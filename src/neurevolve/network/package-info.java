@@ -14,5 +14,8 @@
  * Neurons use an {@link ActivationFunction} to determine the relationship between input and output
  * values. A standard {@link SigmoidFunction} is provided but substituted activation functions can
  * be used at construction of the network.
+ *
+ * A network is normally interpreted. A {@link NetworkCompiler} can generate a class specialised
+ * for the topology of a network, which can then be shared by all networks with the same topology.
  */
 package neurevolve.network;
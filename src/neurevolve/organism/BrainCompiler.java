@@ -0,0 +1,93 @@
+package neurevolve.organism;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import neurevolve.network.CompiledNetwork;
+import neurevolve.network.Network;
+import neurevolve.network.NetworkCompiler;
+import neurevolve.network.Topology;
+
+/**
+ * A <code>BrainCompiler</code> is an optional backend that replaces the interpreted brains of
+ * common organisms with generated classes. Brains are keyed by the content of the recipe that
+ * built them: once a given number of organisms have been born from the same recipe, the brain is
+ * compiled in the background and all subsequent organisms born from that recipe use the compiled
+ * brain. Organisms from rare or short-lived recipes continue to use the interpreter.
+ *
+ * <p>
+ * The births from a recipe and its compiled brain are recorded with the recipe's
+ * {@link BrainPlan}, so the environment's {@link BrainPlanCache} bounds the number of recipes
+ * tracked.
+ *
+ * <p>
+ * Brains are compiled from the shared {@link Topology} of the plan, so no organism is kept while
+ * its brain waits to be compiled.
+ *
+ * <p>
+ * The backend is disabled by default and is enabled for a world using
+ * {@link neurevolve.world.Configuration#setCompileBrains}.
+ */
+public final class BrainCompiler {
+
+    /**
+     * The default number of births from a recipe before its brain is compiled.
+     */
+    public static final int DEFAULT_BIRTH_THRESHOLD = 100;
+
+    private static final NetworkCompiler COMPILER = new NetworkCompiler();
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Brain Compiler");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private static volatile int birthThreshold = DEFAULT_BIRTH_THRESHOLD;
+
+    private BrainCompiler() {
+    }
+
+    /**
+     * Check if brains can be compiled in the current platform.
+     *
+     * @return true if a Java compiler is available
+     */
+    public static boolean isAvailable() {
+        return COMPILER.isAvailable();
+    }
+
+    /**
+     * Set the number of organisms that must be born from a recipe before its brain is compiled.
+     *
+     * @param births the number of births
+     * @throws IllegalArgumentException if <tt>births &lt; 1</tt>
+     */
+    public static void setBirthThreshold(int births) {
+        if (births < 1)
+            throw new IllegalArgumentException("Birth threshold must be positive");
+        birthThreshold = births;
+    }
+
+    /**
+     * Record the birth of an organism with a newly built brain. If the brain for the recipe has
+     * been compiled then the organism's brain uses it. Otherwise, if enough organisms have been
+     * born from the recipe, the brain is queued for compilation.
+     *
+     * @param plan the plan the brain was built from or made from the brain, or null if the brain
+     * could not be planned
+     * @param brain the newly built brain
+     */
+    static void attach(BrainPlan plan, Network brain) {
+        if (plan == null || !COMPILER.isAvailable())
+            return;
+        Topology topology = plan.getTopology();
+        if (topology.size() == 0 || topology.size() > NetworkCompiler.MAX_SIZE)
+            return;
+        Optional<CompiledNetwork> compiled = plan.compiled;
+        if (compiled.isPresent())
+            brain.useCompiled(compiled.get());
+        else if (plan.births.incrementAndGet() >= birthThreshold && plan.compileRequested.compareAndSet(false, true))
+            EXECUTOR.execute(() -> plan.compiled = COMPILER.compile(topology));
+    }
+}
@@ -0,0 +1,56 @@
+package neurevolve.organism;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import neurevolve.network.CompiledNetwork;
+import neurevolve.network.Topology;
+
+/**
+ * A <code>BrainPlan</code> records how to build the brain of an organism from a recipe without
+ * decoding the recipe: the shared {@link Topology} of the brain, the input code sensed by each of
+ * its inputs and the activity code performed by each neuron with an activity. Plans made with and
+ * without dead neurons eliminated are kept apart. Organisms born from
+ * the same recipe share the plan's topology, each holding only its own neuron values.
+ *
+ * <p>
+ * The plan also holds the {@link BrainCompiler}'s record of the brains built from it, so that the
+ * compiled brain for a recipe is kept and evicted along with its plan.
+ */
+final class BrainPlan {
+
+    private final Topology topology;
+    private final int[] inputCodes;
+    private final int[] activityCodes;
+    private final boolean eliminated;
+
+    final AtomicInteger births = new AtomicInteger();
+    final AtomicBoolean compileRequested = new AtomicBoolean();
+    volatile Optional<CompiledNetwork> compiled = Optional.empty();
+
+    BrainPlan(Topology topology, int[] inputCodes, int[] activityCodes, boolean eliminated) {
+        this.topology = topology;
+        this.inputCodes = inputCodes;
+        this.activityCodes = activityCodes;
+        this.eliminated = eliminated;
+    }
+
+    Topology getTopology() {
+        return topology;
+    }
+
+    int getInputCode(int input) {
+        return inputCodes[input];
+    }
+
+    int getActivityCode(int neuron) {
+        return activityCodes[neuron];
+    }
+
+    /**
+     * Check if dead neurons were eliminated from the brain the plan was made from.
+     */
+    boolean isEliminated() {
+        return eliminated;
+    }
+}
@@ -0,0 +1,223 @@
+package neurevolve.organism;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A <code>BrainPlanCache</code> holds the plans for building brains from recipes, keyed by the
+ * content of the recipe. An organism born from a recipe whose content has been seen before builds
+ * its brain from the cached plan rather than decoding the recipe. The plan is also kept with the
+ * recipe itself so that organisms sharing a recipe find it without a lookup.
+ *
+ * <p>
+ * The cache is bounded by a number of recipes. When full, the least recently used plan is evicted.
+ * The number of hits, misses and evictions are recorded so the effectiveness of the cache can be
+ * reported.
+ *
+ * <p>
+ * Each world owns its own cache, which it supplies to organisms through
+ * {@link Environment#getBrainPlanCache}, so worlds in the same process do not share plans or
+ * metrics. Looking up a recipe does not copy its content: the recipe is compared in place with the
+ * content of each cached recipe that has the same fingerprint.
+ */
+public final class BrainPlanCache {
+
+    /**
+     * The default maximum number of plans held.
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private int capacity = DEFAULT_CAPACITY;
+
+    private final Map<Key, BrainPlan> plans = new LinkedHashMap<Key, BrainPlan>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, BrainPlan> eldest) {
+            if (size() > capacity) {
+                evictions.incrementAndGet();
+                return true;
+            } else {
+                return false;
+            }
+        }
+    };
+
+    /**
+     * The content of a recipe and whether dead neurons are eliminated. Keys are hashed by the
+     * recipe's fingerprint and the content is only compared in full when the fingerprints match.
+     * Keys held in the cache own a copy of the content. Keys used to look up a recipe refer to the
+     * recipe itself and compare its content in place.
+     */
+    private static final class Key {
+
+        private final long fingerprint;
+        private final byte[] content;
+        private final Recipe recipe;
+        private final boolean eliminated;
+
+        private Key(long fingerprint, byte[] content, Recipe recipe, boolean eliminated) {
+            this.fingerprint = fingerprint;
+            this.content = content;
+            this.recipe = recipe;
+            this.eliminated = eliminated;
+        }
+
+        private static Key copyOf(Recipe recipe, boolean eliminated) {
+            return new Key(recipe.getFingerprint(), recipe.toByteArray(), null, eliminated);
+        }
+
+        private static Key lookup(Recipe recipe, boolean eliminated) {
+            return new Key(recipe.getFingerprint(), null, recipe, eliminated);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(fingerprint) ^ (eliminated ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key))
+                return false;
+            Key other = (Key) obj;
+            if (fingerprint != other.fingerprint || eliminated != other.eliminated)
+                return false;
+            if (content == null)
+                return other.content == null
+                        ? recipe.hasContent(other.recipe.toByteArray())
+                        : recipe.hasContent(other.content);
+            else
+                return other.content == null
+                        ? other.recipe.hasContent(content)
+                        : Arrays.equals(content, other.content);
+        }
+    }
+
+    /**
+     * Find the plan for a recipe's brain, first from the recipe and then from the cache.
+     *
+     * @param eliminated true to find a plan with dead neurons eliminated
+     * @return the plan, or null if the recipe's content has not been seen
+     */
+    BrainPlan find(Recipe recipe, boolean eliminated) {
+        BrainPlan plan = recipe.getBrainPlan(eliminated);
+        if (plan == null) {
+            Key key = Key.lookup(recipe, eliminated);
+            synchronized (plans) {
+                plan = plans.get(key);
+            }
+            recipe.brainPlan = plan;
+        }
+        if (plan == null)
+            misses.incrementAndGet();
+        else
+            hits.incrementAndGet();
+        return plan;
+    }
+
+    /**
+     * Store the plan for a recipe's brain with the recipe and in the cache.
+     */
+    void store(Recipe recipe, BrainPlan plan) {
+        recipe.brainPlan = plan;
+        if (plan != null) {
+            Key key = Key.copyOf(recipe, plan.isEliminated());
+            synchronized (plans) {
+                plans.put(key, plan);
+            }
+        }
+    }
+
+    /**
+     * Get the number of recipes in the cache whose brains have been compiled by the
+     * {@link BrainCompiler}.
+     *
+     * @return the number of compiled brains
+     */
+    public int getCompiledCount() {
+        synchronized (plans) {
+            return (int) plans.values().stream().filter(plan -> plan.compiled.isPresent()).count();
+        }
+    }
+
+    /**
+     * Set the maximum number of plans held in the cache. If the cache holds more plans than the new
+     * capacity then they are evicted as new plans are added.
+     *
+     * @param capacity the maximum number of plans
+     * @throws IllegalArgumentException if <tt>capacity &lt; 1</tt>
+     */
+    public void setCapacity(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Capacity must be positive");
+        synchronized (plans) {
+            this.capacity = capacity;
+        }
+    }
+
+    /**
+     * Get the number of plans in the cache.
+     *
+     * @return the number of plans
+     */
+    public int size() {
+        synchronized (plans) {
+            return plans.size();
+        }
+    }
+
+    /**
+     * Get the number of brains built from a plan rather than by decoding their recipe.
+     *
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Get the number of brains built by decoding their recipe.
+     *
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Get the number of plans evicted from the cache to keep it within its capacity.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Get the proportion of brains built from a plan.
+     *
+     * @return the hit rate between 0 and 1, or 0 if no brains have been built
+     */
+    public double getHitRate() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Remove all plans from the cache and reset the metrics.
+     */
+    public void clear() {
+        synchronized (plans) {
+            plans.clear();
+        }
+        hits.set(0);
+        misses.set(0);
+        evictions.set(0);
+    }
+}
@@ -85,7 +85,7 @@ public class DistanceSpecies {
      * the archetype member. If it belongs then add it and return true. Otherwise return false
      */
     private boolean includes(Organism organism) {
-        int distance = organisms.get(0).getDifference(organism);
+        int distance = organisms.get(0).getDifference(organism, maxDistance);
         if (distance <= maxDistance) {
             largestDistance = Math.max(largestDistance, distance);
             add(organism);
@@ -1,5 +1,7 @@
 package neurevolve.organism;
 
+import neurevolve.network.Network;
+
 /**
  * An interface between an organism and the world. This interface supplies all the services required
  * to allow the organism to interact with the world.
@@ -35,4 +37,62 @@ public interface Environment {
 
     public String describeActivity(int activity);
 
+    /**
+     * Check if organisms' brains only recalculate the neurons whose sources have changed since
+     * their previous activation.
+     *
+     * @return true if brains are evaluated incrementally
+     */
+    public default boolean isEvaluatedIncrementally() {
+        return false;
+    }
+
+    /**
+     * Check if neurons that cannot influence any activity are eliminated from the brains of new
+     * organisms.
+     *
+     * @return true if dead neurons are eliminated
+     */
+    public default boolean isEliminatingDeadNeurons() {
+        return false;
+    }
+
+    /**
+     * Check if the brains of new organisms born from common recipes are compiled.
+     *
+     * @return true if brains are compiled
+     */
+    public default boolean isCompilingBrains() {
+        return false;
+    }
+
+    /**
+     * Get the cache of plans for building the brains of organisms in the environment.
+     *
+     * @return the cache, or null if plans are only kept with each recipe
+     */
+    public default BrainPlanCache getBrainPlanCache() {
+        return null;
+    }
+
+    /**
+     * Get the level at which the range of each neuron's values is recorded when organisms' brains
+     * are activated.
+     *
+     * @return the statistics level
+     */
+    public default Network.Statistics getStatistics() {
+        return Network.Statistics.FULL;
+    }
+
+    /**
+     * Get the number of activations between samples when the statistics level is
+     * {@link Network.Statistics#SAMPLED}.
+     *
+     * @return the sample period
+     */
+    public default int getSamplePeriod() {
+        return Network.DEFAULT_SAMPLE_PERIOD;
+    }
+
 }
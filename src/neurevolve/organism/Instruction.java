@@ -46,7 +46,25 @@ public enum Instruction {
 
     private interface Operation {
 
-        void operate(Organism organism, byte... values);
+        void operate(Organism organism, byte[] code, int offset);
+    }
+
+    /**
+     * The instruction for each of the 256 possible codes, indexed by the unsigned code.
+     */
+    private static final Instruction[] DECODE_TABLE = new Instruction[256];
+
+    static {
+        for (int code = 0; code < DECODE_TABLE.length; code++) {
+            DECODE_TABLE[code] = JUNK;
+            int position = Code.toInt((byte) code);
+            for (Instruction instruction : values()) {
+                if (position < instruction.codeCount) {
+                    DECODE_TABLE[code] = instruction;
+                    break;
+                }
+            }
+        }
     }
 
     private final Operation operation;
@@ -76,12 +94,7 @@ public enum Instruction {
      * @return the instruction
      */
     public static Instruction decode(byte code) {
-        int position = Code.toInt(code);
-        for (Instruction instruction : values()) {
-            if (position < instruction.codeCount)
-                return instruction;
-        }
-        return JUNK;
+        return DECODE_TABLE[code & 0xFF];
     }
 
     public int getValueCount() {
@@ -98,27 +111,40 @@ public enum Instruction {
      */
     public void complete(Organism organism, byte... values) {
         assert values.length == valueCount;
-        operation.operate(organism, values);
+        operation.operate(organism, values, 0);
+    }
+
+    /**
+     * Perform the operation related to this instruction on the given organism, reading the values
+     * directly from an array of codes.
+     *
+     * @param organism the organism to perform the related operation on
+     * @param code the array containing the values
+     * @param offset the index of the first value for this instruction
+     */
+    void complete(Organism organism, byte[] code, int offset) {
+        assert offset + valueCount <= code.length;
+        operation.operate(organism, code, offset);
     }
 
-    private static void doNothing(Organism organism, byte... values) {
+    private static void doNothing(Organism organism, byte[] code, int offset) {
     }
 
     /**
      * Add a neuron to the organism's network
      */
-    private static void addNeuron(Organism organism, byte... values) {
+    private static void addNeuron(Organism organism, byte[] code, int offset) {
         organism.getBrain().addNeuron();
-        organism.getBrain().setThreshold(toInt(values[0]));
+        organism.getBrain().setThreshold(toInt(code[offset]));
     }
 
     /**
      * Add a link to the last neuron in the organism's network
      */
-    private static void addLink(Organism organism, byte... values) {
+    private static void addLink(Organism organism, byte[] code, int offset) {
         if (organism.getBrain().size() > 1) {
-            int from = Math.floorMod(toInt(values[0]), organism.getBrain().size() - 1);
-            int weight = toInt(values[1]);
+            int from = Math.floorMod(toInt(code[offset]), organism.getBrain().size() - 1);
+            int weight = toInt(code[offset + 1]);
             organism.getBrain().addLink(from, weight);
         }
     }
@@ -126,17 +152,17 @@ public enum Instruction {
     /**
      * Add an input to the last neuron in the organism's network.
      */
-    private static void addInput(Organism organism, byte... values) {
+    private static void addInput(Organism organism, byte[] code, int offset) {
         if (!organism.getBrain().isEmpty()) {
-            Input input = organism.getInput(toInt(values[0]));
-            int weight = toInt(values[1]);
+            Input input = organism.getInput(toInt(code[offset]));
+            int weight = toInt(code[offset + 1]);
             organism.getBrain().addInput(input, weight);
         }
     }
 
-    private static void addDelay(Organism organism, byte... values) {
+    private static void addDelay(Organism organism, byte[] code, int offset) {
         if (!organism.getBrain().isEmpty()) {
-            int delay = toInt(values[0]);
+            int delay = toInt(code[offset]);
             if (delay > 0)
                 organism.getBrain().addDelay(delay);
         }
@@ -145,10 +171,9 @@ public enum Instruction {
     /**
      * Set an activity for the last neuron in the organism's network
      */
-    private static void setActivity(Organism organism, byte... values) {
-        assert values.length == 1;
+    private static void setActivity(Organism organism, byte[] code, int offset) {
         if (!organism.getBrain().isEmpty()) {
-            Activity activity = organism.getActivity(toInt(values[0]));
+            Activity activity = organism.getActivity(toInt(code[offset]));
             organism.getBrain().setActivity(activity);
         }
     }
@@ -1,10 +1,14 @@
 package neurevolve.organism;
 
+import java.util.Arrays;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.IntStream;
 import neurevolve.network.Activity;
 import neurevolve.network.Input;
 import neurevolve.network.Network;
+import neurevolve.network.Topology;
 
 /**
  * An independent organism existing in the world
@@ -12,17 +16,39 @@ import neurevolve.network.Network;
 public class Organism {
 
     private static final int MAX_ENERGY = 10000;
-    private static long lastID = 0;
+    private static final AtomicLong LAST_ID = new AtomicLong();
+    private static final AtomicIntegerFieldUpdater<Organism> DESCENDENTS
+            = AtomicIntegerFieldUpdater.newUpdater(Organism.class, "descendents");
 
-    private final long id = lastID++;
+    private final long id = LAST_ID.getAndIncrement();
     private final Environment environment;
     private final Network brain;
     private Recipe recipe = null;
-    private Optional<Organism> parent = Optional.empty();
+    private volatile Optional<Organism> parent = Optional.empty();
     private int age;
     private int ageAtSplit = 0;
     private int energy;
-    private int descendents = 0;
+    private volatile int descendents = 0;
+    private int slot = -1;
+
+    /**
+     * A cache of the input values sensed by the organism's brain. Each distinct input code is
+     * assigned a slot. A slot's value is valid while its stamp matches the current sensor epoch.
+     */
+    private int[] sensorCodes = new int[0];
+    private int[] sensorValues = new int[0];
+    private int[] sensorStamps = new int[0];
+    private int sensorEpoch = 0;
+    private boolean sensing = false;
+    private int sensorHits = 0;
+    private int sensorMisses = 0;
+
+    /**
+     * Activities that have been chosen but not yet performed.
+     */
+    private int[] deferredActivities = new int[0];
+    private int deferredCount = 0;
+    private boolean deferring = false;
 
     /**
      * Construct an organism.
@@ -41,9 +67,47 @@ public class Organism {
     }
 
     public Organism(Environment environment, int initialEnergy, Recipe recipe) {
-        this(environment, new Network(environment::applyActivationFunction),
+        this(environment, initialEnergy, recipe, environment.isEliminatingDeadNeurons());
+    }
+
+    private Organism(Environment environment, int initialEnergy, Recipe recipe, boolean eliminate) {
+        this(environment, initialEnergy, recipe, eliminate, environment.getBrainPlanCache());
+    }
+
+    private Organism(Environment environment, int initialEnergy, Recipe recipe, boolean eliminate,
+            BrainPlanCache plans) {
+        this(environment, initialEnergy, recipe, eliminate, plans,
+                plans == null ? recipe.getBrainPlan(eliminate) : plans.find(recipe, eliminate));
+    }
+
+    /**
+     * Construct an organism from a recipe. If a plan for the recipe's brain is available then the
+     * brain shares the plan's topology rather than being built by decoding the recipe. Otherwise
+     * the brain is built from the recipe, its dead neurons are eliminated if the environment
+     * requires it and a plan for it is stored with the recipe and in the environment's cache, if it
+     * has one. If the environment compiles brains, the birth is recorded by the
+     * {@link BrainCompiler}.
+     */
+    private Organism(Environment environment, int initialEnergy, Recipe recipe, boolean eliminate,
+            BrainPlanCache plans, BrainPlan plan) {
+        this(environment, plan == null
+                ? new Network(environment::applyActivationFunction)
+                : new Network(environment::applyActivationFunction, plan.getTopology()),
                 initialEnergy, recipe);
-        recipe.forEachInstruction((i, v) -> i.complete(this, v));
+        if (plan == null) {
+            recipe.build(this);
+            if (eliminate)
+                brain.eliminateDeadNeurons();
+            plan = planBrain(eliminate);
+            if (plans == null)
+                recipe.brainPlan = plan;
+            else
+                plans.store(recipe, plan);
+        } else {
+            bindBrain(plan);
+        }
+        if (environment.isCompilingBrains())
+            BrainCompiler.attach(plan, brain);
     }
 
     private Organism(Environment environment, Network brain, int initialEnergy, Recipe recipe) {
@@ -60,6 +124,25 @@ public class Organism {
         return id;
     }
 
+    /**
+     * Get the slot assigned to the organism by the population that holds it.
+     *
+     * @return the slot, or -1 if the organism has never been assigned one
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Assign a slot to the organism. This is used by the population that holds the organism to
+     * index its state without a hash lookup.
+     *
+     * @param slot the slot assigned to the organism
+     */
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
     /**
      * Copy the current values for the neurons in the organism's brain
      *
@@ -154,6 +237,15 @@ public class Organism {
         return brain.size();
     }
 
+    /**
+     * Get the maximum number of activities the organism can perform in a single activation.
+     *
+     * @return the number of neurons in the organism's brain that have an activity
+     */
+    public int getActivityLimit() {
+        return brain.getActivityCount();
+    }
+
     /**
      * Get a measure of the complexity of the organism.
      *
@@ -180,13 +272,18 @@ public class Organism {
         return child;
     }
 
+    /**
+     * Increment the descendents of this organism and its living ancestors. Ancestors may be
+     * dividing concurrently so the count is updated atomically.
+     */
     private void incrementDescendents() {
-        descendents++;
-        if (parent.isPresent()) {
-            if (parent.get().isDead())
+        DESCENDENTS.incrementAndGet(this);
+        Optional<Organism> current = parent;
+        if (current.isPresent()) {
+            if (current.get().isDead())
                 parent = Optional.empty();
             else
-                parent.get().incrementDescendents();
+                current.get().incrementDescendents();
         }
     }
 
@@ -249,6 +346,19 @@ public class Organism {
         return recipe.distanceTo(other.recipe);
     }
 
+    /**
+     * Get the difference between this organism's recipe and another, up to a limit.
+     *
+     * @param other the organism to compare to
+     * @param limit the largest difference of interest
+     * @return the difference between the recipes if it is no more than <tt>limit</tt>, otherwise
+     * <tt>limit + 1</tt>
+     * @see Recipe#distanceTo(Recipe, int)
+     */
+    public int getDifference(Organism other, int limit) {
+        return recipe.distanceTo(other.recipe, limit);
+    }
+
     /**
      * Get the {@link Network} associated with this organism
      *
@@ -260,15 +370,76 @@ public class Organism {
 
     /**
      * Activate the organism by using energy relative to its size and age then activating the
-     * associated network.
+     * associated network. During activation each distinct input is retrieved from the environment
+     * at most once between activities.
      */
     public void activate() {
         age++;
+        sensorHits = 0;
+        sensorMisses = 0;
         if (!isDead()) {
-            brain.activate();
+            invalidateSensors();
+            sensing = true;
+            try {
+                brain.activate(environment.isEvaluatedIncrementally(), environment.getStatistics(),
+                        environment.getSamplePeriod());
+            } finally {
+                sensing = false;
+            }
         }
     }
 
+    /**
+     * Activate the organism without performing any activities. The activities chosen by the
+     * organism's brain are recorded and performed in the same order by a later call to
+     * {@link #act}. As the organism does not change its environment, this can be called
+     * concurrently for organisms in the same environment.
+     */
+    public void think() {
+        deferredCount = 0;
+        deferring = true;
+        try {
+            activate();
+        } finally {
+            deferring = false;
+        }
+    }
+
+    /**
+     * Perform the activities chosen at the previous call to {@link #think}.
+     */
+    public void act() {
+        int count = deferredCount;
+        deferredCount = 0;
+        for (int i = 0; i < count; i++) {
+            environment.performActivity(this, deferredActivities[i]);
+        }
+    }
+
+    private void defer(int activity) {
+        if (deferredCount == deferredActivities.length)
+            deferredActivities = Arrays.copyOf(deferredActivities, deferredCount + 4);
+        deferredActivities[deferredCount++] = activity;
+    }
+
+    /**
+     * Get the number of input values read from the sensor cache during the last activation.
+     *
+     * @return the number of cached input reads
+     */
+    public int getSensorHits() {
+        return sensorHits;
+    }
+
+    /**
+     * Get the number of input values retrieved from the environment during the last activation.
+     *
+     * @return the number of uncached input reads
+     */
+    public int getSensorMisses() {
+        return sensorMisses;
+    }
+
     /**
      * Get an input value from the environment
      *
@@ -276,17 +447,136 @@ public class Organism {
      * @return the resulting input
      */
     public Input getInput(int value) {
-        return () -> environment.getInput(this, value);
+        return new Sensor(getSensorSlot(value));
+    }
+
+    /**
+     * An input that senses a value from the environment through the organism's sensor cache.
+     */
+    private class Sensor implements Input {
+
+        private final int slot;
+
+        private Sensor(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public int getValue() {
+            return sense(slot);
+        }
+    }
+
+    private int getSensorSlot(int code) {
+        for (int slot = 0; slot < sensorCodes.length; slot++) {
+            if (sensorCodes[slot] == code)
+                return slot;
+        }
+        int slot = sensorCodes.length;
+        sensorCodes = Arrays.copyOf(sensorCodes, slot + 1);
+        sensorValues = Arrays.copyOf(sensorValues, slot + 1);
+        sensorStamps = Arrays.copyOf(sensorStamps, slot + 1);
+        sensorCodes[slot] = code;
+        return slot;
+    }
+
+    private int sense(int slot) {
+        if (!sensing)
+            return environment.getInput(this, sensorCodes[slot]);
+        if (sensorStamps[slot] == sensorEpoch) {
+            sensorHits++;
+        } else {
+            sensorMisses++;
+            sensorValues[slot] = environment.getInput(this, sensorCodes[slot]);
+            sensorStamps[slot] = sensorEpoch;
+        }
+        return sensorValues[slot];
+    }
+
+    /**
+     * Discard all cached input values. This is required whenever the organism or its surroundings
+     * may have changed.
+     */
+    private void invalidateSensors() {
+        sensorEpoch++;
+        if (sensorEpoch == 0) {
+            Arrays.fill(sensorStamps, -1);
+        }
     }
 
     /**
-     * Get an activity to perform in the environment
+     * Get an activity to perform in the environment. Performing the activity invalidates any
+     * cached inputs as the activity may change what the organism senses. If the organism is
+     * thinking then the activity is deferred rather than performed.
      *
      * @param value the code for the type of activity to perform
      * @return the resulting activity
      */
     public Activity getActivity(int value) {
-        return () -> environment.performActivity(this, value);
+        return new Action(value);
+    }
+
+    /**
+     * An activity performed by the organism in the environment.
+     */
+    private class Action implements Activity {
+
+        private final int code;
+
+        private Action(int code) {
+            this.code = code;
+        }
+
+        @Override
+        public void perform() {
+            if (deferring) {
+                defer(code);
+            } else {
+                environment.performActivity(Organism.this, code);
+                invalidateSensors();
+            }
+        }
+    }
+
+    /**
+     * Make a plan for building brains like this organism's brain. The plan shares the brain's
+     * topology.
+     *
+     * @param eliminated true if dead neurons have been eliminated from the brain
+     * @return the plan, or null if the brain has inputs or activities that did not come from the
+     * organism
+     */
+    private BrainPlan planBrain(boolean eliminated) {
+        int[] inputCodes = new int[brain.getTopology().getInputCount()];
+        for (int i = 0; i < inputCodes.length; i++) {
+            if (!(brain.getInput(i) instanceof Sensor))
+                return null;
+            inputCodes[i] = sensorCodes[((Sensor) brain.getInput(i)).slot];
+        }
+        int[] activityCodes = new int[brain.getTopology().size()];
+        for (int n = 0; n < activityCodes.length; n++) {
+            if (brain.getActivity(n) instanceof Action)
+                activityCodes[n] = ((Action) brain.getActivity(n)).code;
+            else if (brain.getActivity(n) != null)
+                return null;
+        }
+        return new BrainPlan(brain.getTopology(), inputCodes, activityCodes, eliminated);
+    }
+
+    /**
+     * Bind the inputs and activities of a brain built from a plan to this organism. Inputs are
+     * bound in the order they were added so that sensor slots are assigned as they would be when
+     * decoding the recipe.
+     */
+    private void bindBrain(BrainPlan plan) {
+        Topology topology = plan.getTopology();
+        for (int i = 0; i < topology.getInputCount(); i++) {
+            brain.setInput(i, getInput(plan.getInputCode(i)));
+        }
+        for (int n = 0; n < topology.size(); n++) {
+            if (topology.hasActivity(n))
+                brain.setActivity(n, getActivity(plan.getActivityCode(n)));
+        }
     }
 
     @Override
@@ -4,7 +4,6 @@ import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Queue;
 import java.util.stream.IntStream;
-import static neurevolve.organism.Code.abs;
 import static neurevolve.organism.Code.toInt;
 
 /**
@@ -12,18 +11,60 @@ import static neurevolve.organism.Code.toInt;
  * instructions are contains in an array of integers which also contain the values for the
  * instructions. Any number of instructions and values can be added, with the array automatically
  * expanding when required.
+ *
+ * <p>
+ * A recipe that is copied without change during division is shared by the parent and child rather
+ * than copied. Once shared, a recipe can no longer be changed.
  */
 public class Recipe {
 
     private static final int INITIAL_CAPACITY = 50;
     private static final int EXPANSION_FACTOR = 3;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
 
     private final int colour;
-    private byte[] instructions = new byte[INITIAL_CAPACITY];
-    private int size = 0;
+    private byte[] instructions;
+    private int size;
+
+    /**
+     * A 64-bit FNV-1a hash of the instructions and values, updated as each value is added.
+     */
+    private long hash = FNV_OFFSET_BASIS;
+
+    /**
+     * Set when the recipe has been shared between organisms.
+     */
+    private volatile boolean shared = false;
+
+    /**
+     * The plan for building brains from this recipe, found in the {@link BrainPlanCache} or made
+     * when the first organism is born from it.
+     */
+    volatile BrainPlan brainPlan = null;
 
     public Recipe(int colour) {
+        this(colour, new byte[INITIAL_CAPACITY], 0);
+    }
+
+    /**
+     * Construct a <code>Recipe</code> from an array of instructions and values. The recipe takes
+     * ownership of the array, which must not be changed by the caller afterwards.
+     *
+     * @param colour the colour of the recipe
+     * @param instructions the array containing the instructions and values
+     * @param size the number of instructions and values in the array that belong to the recipe
+     * @throws IllegalArgumentException if <tt>size</tt> is not within the array
+     */
+    public Recipe(int colour, byte[] instructions, int size) {
+        if (size < 0 || size > instructions.length)
+            throw new IllegalArgumentException("Recipe size outside instructions");
         this.colour = colour;
+        this.instructions = instructions;
+        this.size = size;
+        for (int i = 0; i < size; i++) {
+            hash = (hash ^ (instructions[i] & 0xFF)) * FNV_PRIME;
+        }
     }
 
     public int getColour() {
@@ -56,36 +97,170 @@ public class Recipe {
      * Add a new value at the end of the recipe. This value will be used by the last instruction.
      *
      * @param value the value to add
+     * @throws IllegalStateException if the recipe is shared
      */
     public void add(byte value) {
+        if (shared)
+            throw new IllegalStateException("Attempt to change a shared recipe");
+        brainPlan = null;
         expandIfNecessary();
         instructions[size++] = value;
+        hash = (hash ^ (value & 0xFF)) * FNV_PRIME;
     }
 
     private void expandIfNecessary() {
         if (size == instructions.length)
-            instructions = Arrays.copyOf(instructions, size * EXPANSION_FACTOR);
+            instructions = Arrays.copyOf(instructions, Math.max(INITIAL_CAPACITY, size * EXPANSION_FACTOR));
     }
 
+    /**
+     * A <code>Cursor</code> steps through the instructions in a recipe, reading each instruction's
+     * values directly from the recipe rather than copying them. A cursor starts before the first
+     * instruction. If an instruction does not have all its values, the cursor moves to the code
+     * following it.
+     */
+    public class Cursor {
+
+        private int start = 0;
+        private int next = 0;
+        private Instruction instruction = null;
+        private boolean complete = false;
+
+        /**
+         * Move to the next instruction in the recipe.
+         *
+         * @return true if there is another instruction; false if the end of the recipe has been
+         * reached
+         */
+        public boolean next() {
+            if (next >= size)
+                return false;
+            start = next;
+            instruction = Instruction.decode(instructions[start]);
+            next = start + 1 + instruction.getValueCount();
+            complete = next <= size;
+            if (!complete)
+                next = start + 1;
+            return true;
+        }
+
+        /**
+         * Get the current instruction.
+         *
+         * @return the instruction at the cursor
+         */
+        public Instruction getInstruction() {
+            return instruction;
+        }
+
+        /**
+         * Get the code of the current instruction.
+         *
+         * @return the code at the cursor
+         */
+        public byte getCode() {
+            return instructions[start];
+        }
+
+        /**
+         * Check if the current instruction has all of its values. An instruction is incomplete if
+         * the recipe ends before all its values, in which case it is treated as junk.
+         *
+         * @return true if the recipe includes all the values for the instruction
+         */
+        public boolean isComplete() {
+            return complete;
+        }
+
+        /**
+         * Get a value of the current instruction.
+         *
+         * @param index the index of the value, starting at 0
+         * @return the value
+         * @throws IndexOutOfBoundsException if the instruction does not have a value at the index
+         */
+        public byte getValue(int index) {
+            if (!complete || index < 0 || index >= instruction.getValueCount())
+                throw new IndexOutOfBoundsException("No value " + index + " for " + instruction);
+            return instructions[start + 1 + index];
+        }
+    }
+
+    /**
+     * Create a cursor to step through the instructions in this recipe.
+     *
+     * @return a cursor positioned before the first instruction
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Process each instruction in the recipe. The values for each instruction are copied into a new
+     * array; use {@link #cursor} to read instructions without copying.
+     *
+     * @param processor the processor to pass each instruction to
+     */
     public void forEachInstruction(Instruction.Processor processor) {
+        Cursor cursor = cursor();
+        while (cursor.next()) {
+            if (cursor.isComplete())
+                processor.process(cursor.getInstruction(), Arrays.copyOfRange(instructions,
+                        cursor.start + 1, cursor.next));
+            else
+                processor.junk(cursor.getCode());
+        }
+    }
+
+    /**
+     * Complete each instruction in the recipe on an organism. Values are read directly from the
+     * recipe so building an organism allocates nothing. Codes following an incomplete instruction
+     * can only be junk, so decoding stops at the first incomplete instruction.
+     *
+     * @param organism the organism to build
+     */
+    void build(Organism organism) {
         int i = 0;
         while (i < size) {
-            byte code = instructions[i++];
-            Instruction instruction = Instruction.decode(code);
-            int valueCount = instruction.getValueCount();
-            if (i + valueCount <= size) {
-                byte[] values = Arrays.copyOfRange(instructions, i, i += valueCount);
-                processor.process(instruction, values);
-            } else {
-                processor.junk(code);
-            }
+            Instruction instruction = Instruction.decode(instructions[i++]);
+            int end = i + instruction.getValueCount();
+            if (end > size)
+                break;
+            instruction.complete(organism, instructions, i);
+            i = end;
         }
     }
 
+    /**
+     * Replicate this recipe for a new organism. If the replicator returns this recipe unchanged,
+     * it becomes shared and can no longer be changed.
+     *
+     * @param replicator the replicator to use in copying the recipe
+     * @return the recipe for the new organism
+     */
     public Recipe replicate(Replicator replicator) {
+        Recipe copy = replicator.replicate(this);
+        if (copy == this)
+            shared = true;
+        return copy;
+    }
+
+    /**
+     * Copy the instructions of this recipe using a replicator.
+     */
+    Recipe copy(Replicator replicator) {
         return replicator.copyInstructions(instructions, size, colour);
     }
 
+    /**
+     * Check if this recipe is shared between organisms.
+     *
+     * @return true if the recipe is shared
+     */
+    public boolean isShared() {
+        return shared;
+    }
+
     /**
      * Convert the values to queue
      *
@@ -97,11 +272,77 @@ public class Recipe {
         return values;
     }
 
+    /**
+     * Copy the instructions and values of the recipe, excluding its colour.
+     *
+     * @return an array containing the instructions and values
+     */
+    protected byte[] toByteArray() {
+        return Arrays.copyOf(instructions, size);
+    }
+
+    /**
+     * Get the plan for building brains kept with this recipe.
+     *
+     * @param eliminated true to get a plan with dead neurons eliminated
+     * @return the plan, or null if the recipe has no plan of the right kind
+     */
+    BrainPlan getBrainPlan(boolean eliminated) {
+        BrainPlan plan = brainPlan;
+        return plan != null && plan.isEliminated() == eliminated ? plan : null;
+    }
+
+    /**
+     * Check if the instructions and values in the recipe are the same as some content, without
+     * copying them.
+     *
+     * @param content the instructions and values, as returned by {@link #toByteArray}
+     * @return true if the recipe holds the same instructions and values
+     */
+    boolean hasContent(byte[] content) {
+        if (content.length != size)
+            return false;
+        for (int i = 0; i < size; i++) {
+            if (instructions[i] != content[i])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Get a 64-bit fingerprint of the instructions and values in the recipe, excluding its colour.
+     * Recipes with the same instructions and values always have the same fingerprint and recipes
+     * that differ are very unlikely to. The fingerprint is maintained as values are added so
+     * getting it takes constant time.
+     *
+     * @return the fingerprint of the recipe's content
+     */
+    public long getFingerprint() {
+        // finalise the FNV hash with the MurmurHash3 mixer to spread the bits
+        long mixed = hash ^ size;
+        mixed = (mixed ^ (mixed >>> 33)) * 0xff51afd7ed558ccdL;
+        mixed = (mixed ^ (mixed >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return mixed ^ (mixed >>> 33);
+    }
+
+    /**
+     * Check if this recipe has the same colour, instructions and values as another. The
+     * fingerprints of the recipes are compared first, so the values are only compared when the
+     * recipes are almost certain to match.
+     *
+     * @param other the recipe to compare
+     * @return true if the recipes match
+     */
     public boolean matches(Recipe other) {
-        return this.colour == other.colour
-                && this.size == other.size
-                && IntStream.range(0, size)
-                .allMatch(i -> this.instructions[i] == other.instructions[i]);
+        if (this.colour != other.colour || this.size != other.size || this.hash != other.hash)
+            return false;
+        if (this.instructions == other.instructions)
+            return true;
+        for (int i = 0; i < size; i++) {
+            if (this.instructions[i] != other.instructions[i])
+                return false;
+        }
+        return true;
     }
 
     /**
@@ -113,31 +354,89 @@ public class Recipe {
      * @return the distance to the other recipe
      */
     public int distanceTo(Recipe other) {
-        // This algorithm is from https://en.wikipedia.org/wiki/Levenshtein_distance
-        int distance[][] = new int[this.size + 1][other.size + 1];
-        for (int i = 0; i <= this.size; i++) {
-            distance[i][0] = 0;
-            for (int j = 0; j < i; j++) {
-                distance[i][0] += toInt(abs(this.instructions[j]));
-            }
+        return distanceTo(other, MAX_DISTANCE_LIMIT);
+    }
+
+    /**
+     * The largest limit for a bounded distance. This leaves room to add a change to a value above
+     * the limit without overflowing.
+     */
+    private static final int MAX_DISTANCE_LIMIT = Integer.MAX_VALUE - 256;
+
+    /**
+     * Calculate the distance between this recipe and another, giving up as soon as the distance is
+     * known to exceed a limit. This is much faster than {@link #distanceTo(Recipe)} when only
+     * closely related recipes are of interest.
+     *
+     * <p>
+     * The distance is a Levenshtein distance in which inserting or deleting a value costs its
+     * magnitude and substituting a value costs the difference. Only two rows of the distance table
+     * are kept. Because no change has a negative cost, any entry above the limit can only lead to a
+     * distance above the limit, so each row is only calculated across the columns reachable from
+     * entries within the limit in the previous row. Inserting a zero value costs nothing, so the
+     * columns are not restricted to a fixed band around the diagonal.
+     *
+     * @param other the recipe to compare
+     * @param limit the largest distance of interest
+     * @return the distance to the other recipe if it is no more than <tt>limit</tt>, otherwise
+     * <tt>limit + 1</tt>
+     */
+    public int distanceTo(Recipe other, int limit) {
+        limit = Math.min(limit, MAX_DISTANCE_LIMIT);
+        int over = limit + 1;
+        if (limit < 0)
+            return over;
+        int[] otherPrefix = new int[other.size + 1];
+        for (int j = 0; j < other.size; j++) {
+            otherPrefix[j + 1] = otherPrefix[j] + Math.abs(toInt(other.instructions[j]));
         }
-        for (int j = 0; j <= other.size; j++) {
-            distance[0][j] = 0;
-            for (int i = 0; i < j; i++) {
-                distance[0][j] += toInt(abs(other.instructions[i]));
-            }
+        int thisTotal = 0;
+        for (int i = 0; i < this.size; i++) {
+            thisTotal += Math.abs(toInt(this.instructions[i]));
         }
-        for (int i = 1; i <= this.size; i++) {
-            for (int j = 1; j <= other.size; j++) {
-                int val1 = toInt(this.instructions[i - 1]);
-                int val2 = toInt(other.instructions[j - 1]);
-                int cost = distance[i - 1][j - 1] + Math.abs(val1 - val2);
-                cost = Math.min(cost, distance[i][j - 1] + Math.abs(val2));
-                cost = Math.min(cost, distance[i - 1][j] + Math.abs(val1));
-                distance[i][j] = cost;
+        // each change alters the total magnitude of the values by no more than its cost
+        if (Math.abs(thisTotal - otherPrefix[other.size]) > limit)
+            return over;
+
+        int[] previous = new int[other.size + 1];
+        int[] current = new int[other.size + 1];
+        int from = 0;
+        int to = -1;
+        for (int j = 0; j <= other.size && otherPrefix[j] <= limit; j++) {
+            previous[j] = otherPrefix[j];
+            to = j;
+        }
+        for (int i = 1; i <= this.size && to >= from; i++) {
+            int val1 = toInt(this.instructions[i - 1]);
+            int cost1 = Math.abs(val1);
+            int nextFrom = -1;
+            int nextTo = -1;
+            int left = over;
+            for (int j = from; j <= other.size && (j <= to + 1 || left <= limit); j++) {
+                int cost = left;
+                if (j <= to)
+                    cost = Math.min(cost, previous[j] + cost1);
+                if (j > from && j - 1 <= to) {
+                    int val2 = toInt(other.instructions[j - 1]);
+                    cost = Math.min(cost, previous[j - 1] + Math.abs(val1 - val2));
+                }
+                cost = Math.min(cost, over);
+                current[j] = cost;
+                if (cost <= limit) {
+                    if (nextFrom < 0)
+                        nextFrom = j;
+                    nextTo = j;
+                }
+                left = j < other.size ? Math.min(over, cost + Math.abs(toInt(other.instructions[j]))) : over;
             }
+            if (nextFrom < 0)
+                return over;
+            from = nextFrom;
+            to = nextTo;
+            int[] swap = previous;
+            previous = current;
+            current = swap;
         }
-        return distance[this.size][other.size];
+        return to == other.size ? previous[other.size] : over;
     }
-
 }
@@ -177,37 +177,46 @@ public class RecipeDescriber {
     public RecipeDescriber(Recipe recipe, Environment environment) {
         this.recipe = recipe;
         this.environment = environment;
-        recipe.forEachInstruction(this::process);
+        Recipe.Cursor cursor = recipe.cursor();
+        while (cursor.next()) {
+            if (cursor.isComplete())
+                process(cursor);
+        }
     }
 
-    private void process(Instruction instruction, byte... values) {
-        switch (instruction) {
+    private void process(Recipe.Cursor cursor) {
+        switch (cursor.getInstruction()) {
             case JUNK:
                 junk++;
                 break;
             case ADD_NEURON:
-                neurons.add(new Neuron(toInt(values[0])));
+                neurons.add(new Neuron(toInt(cursor.getValue(0))));
                 break;
             case ADD_LINK:
                 if (neurons.size() > 1) {
-                    int from = Math.floorMod(values[0], neurons.size() - 1);
-                    last().ifPresent(n -> n.links.put(from, values[1]));
+                    int from = Math.floorMod(cursor.getValue(0), neurons.size() - 1);
+                    byte weight = cursor.getValue(1);
+                    last().ifPresent(n -> n.links.put(from, weight));
                     last().ifPresent(n -> neurons.get(from).outputs.add(n.id));
                 } else {
                     junk += 3;
                 }
                 break;
             case ADD_INPUT:
-                last().ifPresent(n -> n.inputs.put(values[0], values[1]));
+                byte input = cursor.getValue(0);
+                byte weight = cursor.getValue(1);
+                last().ifPresent(n -> n.inputs.put(input, weight));
                 break;
             case ADD_DELAY:
-                last().ifPresent(n -> n.delay = values[0]);
+                byte delay = cursor.getValue(0);
+                last().ifPresent(n -> n.delay = delay);
                 break;
             case SET_ACTIVITY:
-                last().ifPresent(n -> n.activity = Optional.of(values[0]));
+                byte activity = cursor.getValue(0);
+                last().ifPresent(n -> n.activity = Optional.of(activity));
                 break;
             default:
-                throw new AssertionError(instruction.name());
+                throw new AssertionError(cursor.getInstruction().name());
         }
     }
 
@@ -19,4 +19,16 @@ public interface Replicator {
      */
     public Recipe copyInstructions(byte[] instructions, int size, int colour);
 
+    /**
+     * Replicate a recipe during an organism's division. By default the instructions are copied
+     * using {@link #copyInstructions}. A replicator that knows the copy would be identical can
+     * return the recipe itself, in which case the recipe is shared by the parent and child.
+     *
+     * @param recipe the recipe to replicate
+     * @return the recipe for the child
+     */
+    default Recipe replicate(Recipe recipe) {
+        return recipe.copy(this);
+    }
+
 }
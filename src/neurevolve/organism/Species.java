@@ -1,6 +1,8 @@
 package neurevolve.organism;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -129,4 +131,18 @@ public class Species {
             return species;
         }
     }
+
+    /**
+     * Find the species for an organism in an index of species. The index groups species by the
+     * colour and fingerprint of their recipes, so only species that almost certainly match are
+     * checked. If no such species is in the index then one is created and added to the index.
+     *
+     * @param organism the organism to find a species for
+     * @param speciesIndex the species found so far, keyed by colour and recipe fingerprint
+     * @return the species for the organism
+     */
+    public static Species addToSpecies(Organism organism, Map<Long, List<Species>> speciesIndex) {
+        long key = organism.getRecipe().getFingerprint() * 31 + organism.getColour();
+        return addToSpecies(organism, speciesIndex.computeIfAbsent(key, k -> new ArrayList<>(1)));
+    }
 }
@@ -7,7 +7,9 @@ import java.awt.Dimension;
 import java.awt.event.ActionEvent;
 import java.text.NumberFormat;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -180,7 +182,7 @@ public class AnalysisWindow extends JFrame {
      */
     private class AnalysisWorker extends SwingWorker<Integer, Species> {
 
-        private final List<Species> speciesList = new ArrayList<>();
+        private final Map<Long, List<Species>> speciesIndex = new HashMap<>();
         private int populationSize;
         private int processed = 0;
 
@@ -188,11 +190,11 @@ public class AnalysisWindow extends JFrame {
         protected Integer doInBackground() {
             populationSize = world.getPopulationSize();
             world.getOrganisms().forEach(this::analyseOrganism);
-            return speciesList.size();
+            return speciesIndex.values().stream().mapToInt(List::size).sum();
         }
 
         private void analyseOrganism(Organism organism) {
-            publish(Species.addToSpecies(organism, speciesList));
+            publish(Species.addToSpecies(organism, speciesIndex));
             processed++;
         }
 
@@ -18,7 +18,6 @@ import static neurevolve.world.GroundElement.ELEVATION;
 import static neurevolve.world.GroundElement.RADIATION;
 import static neurevolve.world.GroundElement.RESOURCES;
 import static neurevolve.world.GroundElement.WALL;
-import neurevolve.world.Population;
 import neurevolve.world.Space;
 import neurevolve.world.World;
 import neurevolve.world.WorldTicker;
@@ -73,25 +72,25 @@ public class MapPanel extends JPanel {
     }
 
     /**
-     * Redraw the world. Copies the resources, population and elevation in order to ensure that the
-     * display represents a snapshot of the world.
+     * Redraw the world. Copies the resources and elevation in order to ensure that the display
+     * represents a snapshot of the world. The population is read directly as redrawing occurs
+     * between ticks.
      */
     private void redraw() {
-        Population population = world.getPopulationCopy();
         Ground ground = world.copyGround();
-        ground.forEach((p, d) -> redraw(population, p, d));
+        ground.forEach(this::redraw);
         repaint();
     }
 
-    private void redraw(Population population, int pos, int ground) {
+    private void redraw(int pos, int ground) {
+        Organism organism;
         if (WALL.get(ground) == 1) {
             pixels[pos] = Color.DARK_GRAY.getRGB();
-        } else if (population.hasOrganism(pos)) {
-            Organism organism = population.getOrganism(pos);
+        } else if ((organism = world.getOrganism(pos)) != null) {
             if (selectedSpecies.isPresent() && selectedSpecies.get().matches(organism))
                 pixels[pos] = Color.WHITE.getRGB();
             else
-                pixels[pos] = populationColour(config, population.getOrganism(pos)) | 255 << 24;
+                pixels[pos] = populationColour(config, organism) | 255 << 24;
         } else if (BODY.get(ground) == 1) {
             pixels[pos] = bodyColour(config);
         } else {
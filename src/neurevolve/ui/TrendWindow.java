@@ -45,7 +45,13 @@ public class TrendWindow extends JFrame {
             return name().substring(0, 1).toUpperCase() + name().substring(1).toLowerCase();
         }
 
+        public boolean isAvailable(WorldStatistics stats) {
+            return this != COMPLEXITY || stats.isComplexityRecorded();
+        }
+
         public void addData(WorldStatistics stats) {
+            if (!isAvailable(stats))
+                return;
             Integer time = stats.getTime();
             if (tickData.getColumnCount() > 2000)
                 tickData.removeColumn(0);
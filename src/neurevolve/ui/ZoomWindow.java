@@ -31,7 +31,6 @@ import neurevolve.organism.RecipeDescriber;
 import neurevolve.world.Configuration;
 import neurevolve.world.Ground;
 import neurevolve.world.GroundElement;
-import neurevolve.world.Population;
 import neurevolve.world.Space;
 import neurevolve.world.World;
 import neurevolve.world.WorldTicker;
@@ -140,9 +139,8 @@ public class ZoomWindow {
         private final List<OrganismSnapShot> organisms = new ArrayList<>();
 
         public SnapShot() {
-            Population population = world.getPopulationCopy();
             Ground groundCopy = world.copyGround();
-            forEachPosition((x, y, p) -> process(x, y, groundCopy.getTotalValue(p), population.getOrganism(p)));
+            forEachPosition((x, y, p) -> process(x, y, groundCopy.getTotalValue(p), world.getOrganism(p)));
         }
 
         private void process(int x, int y, int groundElement, Organism organism) {
@@ -1,6 +1,9 @@
 package neurevolve.world;
 
 import java.util.EnumMap;
+import java.util.logging.Logger;
+import neurevolve.network.Network;
+import neurevolve.organism.BrainCompiler;
 import neurevolve.organism.Code;
 import neurevolve.organism.Instruction;
 import neurevolve.organism.Recipe;
@@ -15,6 +18,12 @@ import neurevolve.organism.Recipe;
  * <li>Half lives of ground elements.</li>
  * <li>The recipe to use for new seed organisms in a world.</li>
  * </ul>
+ *
+ * <p>
+ * The simulation reads the configuration through an immutable {@link Snapshot}, which holds every
+ * value in an array indexed by ordinal. A new snapshot is published whenever the configuration
+ * changes. While a tick is in progress, changes are held back and published when the tick ends,
+ * so that the whole of each tick sees a single consistent configuration.
  */
 public class Configuration {
 
@@ -142,6 +151,111 @@ public class Configuration {
     private final EnumMap<WorldActivity, Integer> factors = new EnumMap<>(WorldActivity.class);
     private final EnumMap<GroundElement, Integer> halfLives = new EnumMap<>(GroundElement.class);
     private Recipe seedRecipe;
+    private boolean incremental = false;
+    private boolean eliminateDeadNeurons = false;
+    private boolean compileBrains = false;
+    private Network.Statistics statistics = Network.Statistics.FULL;
+    private int samplePeriod = Network.DEFAULT_SAMPLE_PERIOD;
+    private volatile Snapshot snapshot;
+    private boolean ticking = false;
+    private boolean changed = false;
+
+    /**
+     * An immutable copy of the values in a configuration, with defaults resolved.
+     */
+    public static final class Snapshot {
+
+        private final int[] values = new int[Value.values().length];
+        private final int[] costs = new int[WorldActivity.values().length];
+        private final int[] factors = new int[WorldActivity.values().length];
+        private final int[] halfLives = new int[GroundElement.values().length];
+        private final boolean incremental;
+        private final boolean eliminateDeadNeurons;
+        private final boolean compileBrains;
+        private final Network.Statistics statistics;
+        private final int samplePeriod;
+
+        private Snapshot(Configuration config) {
+            for (Value value : Value.values()) {
+                values[value.ordinal()] = config.values.getOrDefault(value, value.defaultValue);
+            }
+            for (WorldActivity activity : WorldActivity.values()) {
+                costs[activity.ordinal()] = config.costs.getOrDefault(activity, getValue(Value.ACTIVITY_COST));
+                factors[activity.ordinal()] = config.factors.getOrDefault(activity, getValue(Value.ACTIVITY_FACTOR));
+            }
+            for (GroundElement element : GroundElement.values()) {
+                halfLives[element.ordinal()] = config.halfLives.getOrDefault(element, getValue(Value.HALF_LIFE));
+            }
+            incremental = config.incremental;
+            eliminateDeadNeurons = config.eliminateDeadNeurons;
+            compileBrains = config.compileBrains;
+            statistics = config.statistics;
+            samplePeriod = config.samplePeriod;
+        }
+
+        /**
+         * @see Configuration#getValue
+         */
+        public int getValue(Value value) {
+            return values[value.ordinal()];
+        }
+
+        /**
+         * @see Configuration#getActivityCost
+         */
+        public int getActivityCost(WorldActivity activity) {
+            return costs[activity.ordinal()];
+        }
+
+        /**
+         * @see Configuration#getActivityFactor
+         */
+        public int getActivityFactor(WorldActivity activity) {
+            return factors[activity.ordinal()];
+        }
+
+        /**
+         * @see Configuration#getHalfLife
+         */
+        public int getHalfLife(GroundElement element) {
+            return halfLives[element.ordinal()];
+        }
+
+        /**
+         * @see Configuration#isIncremental
+         */
+        public boolean isIncremental() {
+            return incremental;
+        }
+
+        /**
+         * @see Configuration#isEliminatingDeadNeurons
+         */
+        public boolean isEliminatingDeadNeurons() {
+            return eliminateDeadNeurons;
+        }
+
+        /**
+         * @see Configuration#isCompilingBrains
+         */
+        public boolean isCompilingBrains() {
+            return compileBrains;
+        }
+
+        /**
+         * @see Configuration#getStatistics
+         */
+        public Network.Statistics getStatistics() {
+            return statistics;
+        }
+
+        /**
+         * @see Configuration#getSamplePeriod
+         */
+        public int getSamplePeriod() {
+            return samplePeriod;
+        }
+    }
 
     /**
      * Construct a {@code Configuration} to contain values.
@@ -153,6 +267,41 @@ public class Configuration {
         seedRecipe.add(Instruction.ADD_NEURON, Code.fromInt(0));
         seedRecipe.add(Instruction.SET_ACTIVITY, WorldActivity.DIVIDE.code());
         halfLives.put(GroundElement.BODY, 4);
+        snapshot = new Snapshot(this);
+    }
+
+    /**
+     * Get the most recently published snapshot of the configuration.
+     *
+     * @return the current snapshot
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Hold back publishing changes until {@link #endTick} is called.
+     */
+    synchronized void startTick() {
+        ticking = true;
+    }
+
+    /**
+     * Publish any changes made since {@link #startTick} was called.
+     */
+    synchronized void endTick() {
+        ticking = false;
+        if (changed)
+            publish();
+    }
+
+    private void publish() {
+        if (ticking) {
+            changed = true;
+        } else {
+            changed = false;
+            snapshot = new Snapshot(this);
+        }
     }
 
     /**
@@ -161,7 +310,7 @@ public class Configuration {
      * @param value the value to get.
      * @return the previously set value or the default for the value
      */
-    public int getValue(Value value) {
+    public synchronized int getValue(Value value) {
         return values.getOrDefault(value, value.defaultValue);
     }
 
@@ -172,12 +321,130 @@ public class Configuration {
      * @param amount the amount to set the value to.
      * @throws IllegalArgumentException if the amount is not within the value's range.
      */
-    public void setValue(Value value, int amount) {
+    public synchronized void setValue(Value value, int amount) {
         if (amount < value.minValue)
             throw new IllegalArgumentException("Value is smaller than minimum for " + value.name());
         if (amount > value.maxValue)
             throw new IllegalArgumentException("Value is larger than maximum for " + value.name());
         values.put(value, amount);
+        publish();
+    }
+
+    /**
+     * Check if organisms' brains only recalculate the neurons whose sources have changed since
+     * their previous activation.
+     *
+     * @return true if brains are evaluated incrementally
+     */
+    public synchronized boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * Specify whether organisms' brains only recalculate the neurons whose sources have changed
+     * since their previous activation. The results are the same either way.
+     *
+     * @param incremental true to evaluate brains incrementally
+     */
+    public synchronized void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+        publish();
+    }
+
+    /**
+     * Check if neurons that cannot influence any activity are eliminated from the brains of new
+     * organisms.
+     *
+     * @return true if dead neurons are eliminated
+     */
+    public synchronized boolean isEliminatingDeadNeurons() {
+        return eliminateDeadNeurons;
+    }
+
+    /**
+     * Specify whether neurons that cannot influence any activity are eliminated from the brains of
+     * new organisms. Eliminated neurons are not evaluated and report a value and range of zero, so
+     * they are not counted in the complexity of organisms. Organisms that already exist are
+     * unaffected.
+     *
+     * @param eliminate true to eliminate dead neurons
+     */
+    public synchronized void setEliminateDeadNeurons(boolean eliminate) {
+        this.eliminateDeadNeurons = eliminate;
+        publish();
+    }
+
+    /**
+     * Check if the brains of organisms born from common recipes are compiled to generated classes.
+     *
+     * @return true if brains are compiled
+     */
+    public synchronized boolean isCompilingBrains() {
+        return compileBrains;
+    }
+
+    /**
+     * Specify whether the brains of organisms born from common recipes are compiled to generated
+     * classes by the {@link neurevolve.organism.BrainCompiler}. The results are the same either
+     * way. If no compiler is available, as when running on a JRE, compilation stays off and the
+     * reason is logged. Organisms that already have compiled brains are unaffected.
+     *
+     * @param compile true to compile brains
+     */
+    public synchronized void setCompileBrains(boolean compile) {
+        if (compile && !BrainCompiler.isAvailable()) {
+            Logger.getLogger(Configuration.class.getName())
+                    .warning("No Java compiler is available so brains will not be compiled");
+            compile = false;
+        }
+        this.compileBrains = compile;
+        publish();
+    }
+
+    /**
+     * Get the level at which the range of each neuron's values is recorded when organisms' brains
+     * are activated.
+     *
+     * @return the statistics level
+     */
+    public synchronized Network.Statistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Specify the level at which the range of each neuron's values is recorded when organisms'
+     * brains are activated. The ranges are only used to measure the complexity of organisms, which
+     * is not gathered in world statistics when the level is {@link Network.Statistics#OFF}.
+     *
+     * @param statistics the statistics level
+     */
+    public synchronized void setStatistics(Network.Statistics statistics) {
+        this.statistics = statistics;
+        publish();
+    }
+
+    /**
+     * Get the number of activations between samples when the statistics level is
+     * {@link Network.Statistics#SAMPLED}.
+     *
+     * @return the sample period
+     */
+    public synchronized int getSamplePeriod() {
+        return samplePeriod;
+    }
+
+    /**
+     * Specify the number of activations between samples when the statistics level is
+     * {@link Network.Statistics#SAMPLED}.
+     *
+     * @param period the number of activations between samples
+     * @throws IllegalArgumentException if <tt>period &lt; 1</tt>
+     */
+    public synchronized void setSamplePeriod(int period) {
+        if (period < 1)
+            throw new IllegalArgumentException("Sample period must be positive");
+        this.samplePeriod = period;
+        publish();
     }
 
     /**
@@ -186,7 +453,7 @@ public class Configuration {
      * {@link neurevolve.world.WorldActivity#EAT_HERE} and
      * {@link neurevolve.world.WorldActivity#DIVIDE} activities.
      */
-    public Recipe getSeedRecipe() {
+    public synchronized Recipe getSeedRecipe() {
         return seedRecipe;
     }
 
@@ -195,7 +462,7 @@ public class Configuration {
      *
      * @param recipe the recipe to use to create seed organisms.
      */
-    public void setSeedRecipe(Recipe recipe) {
+    public synchronized void setSeedRecipe(Recipe recipe) {
         this.seedRecipe = recipe;
     }
 
@@ -206,7 +473,7 @@ public class Configuration {
      * @return the cost of the activity or the current value of {@link Value#ACTIVITY_COST} if no
      * cost has been specified for this activity.
      */
-    public int getActivityCost(WorldActivity activity) {
+    public synchronized int getActivityCost(WorldActivity activity) {
         return costs.getOrDefault(activity, getValue(Value.ACTIVITY_COST));
     }
 
@@ -216,8 +483,9 @@ public class Configuration {
      * @param activity the activity whose cost is being specified
      * @param cost the cost of the activity
      */
-    public void setActivityCost(WorldActivity activity, int cost) {
+    public synchronized void setActivityCost(WorldActivity activity, int cost) {
         costs.put(activity, cost);
+        publish();
     }
 
     /**
@@ -227,7 +495,7 @@ public class Configuration {
      * @param activity the activity to retrieve the factor for
      * @return the factor
      */
-    public int getActivityFactor(WorldActivity activity) {
+    public synchronized int getActivityFactor(WorldActivity activity) {
         return factors.getOrDefault(activity, getValue(Value.ACTIVITY_FACTOR));
     }
 
@@ -238,8 +506,9 @@ public class Configuration {
      * @param activity the activity to set the factor for.
      * @param factor the factor for the activity.
      */
-    public void setActivityFactor(WorldActivity activity, int factor) {
+    public synchronized void setActivityFactor(WorldActivity activity, int factor) {
         factors.put(activity, factor);
+        publish();
     }
 
     /**
@@ -250,7 +519,7 @@ public class Configuration {
      * @return the half life of the given element, or the current value of {@link Value#HALF_LIFE}.
      * For the element {@link neurevolve.world.GroundElement#BODY}, the default half life is 4.
      */
-    public int getHalfLife(GroundElement element) {
+    public synchronized int getHalfLife(GroundElement element) {
         return halfLives.getOrDefault(element, getValue(Value.HALF_LIFE));
     }
 
@@ -261,8 +530,9 @@ public class Configuration {
      * @param element the element to specify a half life for
      * @param period the number of ticks
      */
-    public void setHalfLife(GroundElement element, int period) {
+    public synchronized void setHalfLife(GroundElement element, int period) {
         halfLives.put(element, period);
+        publish();
     }
 
 }
@@ -0,0 +1,116 @@
+package neurevolve.world;
+
+import java.util.OptionalInt;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A <code>FreePositions</code> is an index of the positions in a world that do not have an
+ * organism, wall or body. The free positions are held as a bit for each position along with a
+ * count of the set bits, so adding, removing and checking free positions take constant time.
+ *
+ * <p>
+ * Each word of bits is changed atomically, so positions may be changed concurrently without
+ * locking, as happens when tiles of the population are processed in parallel. Random selection
+ * samples positions until it finds a free one, which takes a small number of attempts unless very
+ * few positions are free, in which case it counts through the words to the selected position.
+ * Random selection is only exact if no positions are changed while it takes place.
+ */
+final class FreePositions {
+
+    /**
+     * The number of positions to sample before counting through the words.
+     */
+    private static final int MAX_ATTEMPTS = 32;
+
+    private final int size;
+    private final AtomicLongArray words;
+    private final AtomicInteger count;
+
+    /**
+     * Construct an index in which all positions are free.
+     *
+     * @param size the number of positions
+     */
+    FreePositions(int size) {
+        this.size = size;
+        words = new AtomicLongArray((size + 63) / 64);
+        for (int w = 0; w < words.length(); w++) {
+            int bits = Math.min(64, size - w * 64);
+            words.set(w, bits == 64 ? -1L : (1L << bits) - 1);
+        }
+        count = new AtomicInteger(size);
+    }
+
+    /**
+     * Check if a position is free.
+     *
+     * @param position the position to check
+     * @return true if the position is free
+     */
+    boolean isFree(int position) {
+        return (words.get(position >> 6) & 1L << position) != 0;
+    }
+
+    /**
+     * Set whether a position is free.
+     *
+     * @param position the position to change
+     * @param free true if the position is free
+     */
+    void setFree(int position, boolean free) {
+        long bit = 1L << position;
+        long previous = free
+                ? words.getAndAccumulate(position >> 6, bit, (word, b) -> word | b)
+                : words.getAndAccumulate(position >> 6, bit, (word, b) -> word & ~b);
+        if ((previous & bit) == 0 == free)
+            count.addAndGet(free ? 1 : -1);
+    }
+
+    /**
+     * Get the number of free positions.
+     *
+     * @return the number of free positions
+     */
+    int size() {
+        return count.get();
+    }
+
+    /**
+     * Select a free position with each free position equally likely.
+     *
+     * @param random the source of randomness
+     * @return a random free position, or <code>OptionalInt.empty()</code> if there are no free
+     * positions
+     */
+    OptionalInt getRandom(Random random) {
+        int free = count.get();
+        if (free == 0)
+            return OptionalInt.empty();
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            int position = random.nextInt(size);
+            if (isFree(position))
+                return OptionalInt.of(position);
+        }
+        return select(random.nextInt(free));
+    }
+
+    /**
+     * Find the free position with a given number of free positions before it.
+     */
+    private OptionalInt select(int index) {
+        for (int w = 0; w < words.length(); w++) {
+            long word = words.get(w);
+            int bits = Long.bitCount(word);
+            if (index < bits) {
+                for (; index > 0; index--) {
+                    word &= word - 1;
+                }
+                return OptionalInt.of(w * 64 + Long.numberOfTrailingZeros(word));
+            }
+            index -= bits;
+        }
+        return OptionalInt.empty();
+    }
+}
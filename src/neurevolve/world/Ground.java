@@ -1,10 +1,31 @@
 package neurevolve.world;
 
-import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+import static neurevolve.world.GroundElement.ELEVATION;
+import static neurevolve.world.GroundElement.RESOURCES;
 
+/**
+ * A <code>Ground</code> holds the values of the {@link GroundElement}s at each position, packed
+ * into a single int per position.
+ *
+ * <p>
+ * If the ground has a {@link ResourceGrowth} then resources grow lazily: each position records the
+ * total growth for its base temperature when it was last changed. Reading a position's resources
+ * adds the growth since then without storing it, so reads never write and can be made from any
+ * number of threads. The growth is only stored when an element of the position is changed.
+ *
+ * <p>
+ * The ground also records which positions have a non-zero value for each element other than
+ * resources, as one bit per position, so that decay only needs to visit those positions.
+ */
 public class Ground {
 
     private final int[] elements;
+    private final ResourceGrowth growth;
+    private final long[] growthMarks;
+    private final AtomicLongArray[] nonZero = new AtomicLongArray[GroundElement.values().length];
 
     @FunctionalInterface
     public interface Process {
@@ -13,24 +34,51 @@ public class Ground {
     }
 
     public Ground(int size) {
-        this(new int[size]);
+        this(new int[size], null);
     }
 
-    private Ground(int[] elements) {
+    Ground(int size, ResourceGrowth growth) {
+        this(new int[size], growth);
+    }
+
+    private Ground(int[] elements, ResourceGrowth growth) {
         this.elements = elements;
+        this.growth = growth;
+        this.growthMarks = growth == null ? null : new long[elements.length];
+        for (GroundElement element : GroundElement.values()) {
+            if (element != RESOURCES) {
+                nonZero[element.ordinal()] = new AtomicLongArray((elements.length + 63) / 64);
+                for (int p = 0; p < elements.length; p++) {
+                    if (element.get(elements[p]) > 0)
+                        setNonZero(element, p, true);
+                }
+            }
+        }
     }
 
+    /**
+     * Copy the ground, including the resources grown at each position. The growth is included in
+     * the copy without being stored in this ground.
+     *
+     * @return the copy
+     */
     public Ground copy() {
-        return new Ground(Arrays.copyOf(elements, elements.length));
+        int[] copy = new int[elements.length];
+        for (int p = 0; p < elements.length; p++) {
+            copy[p] = grown(p);
+        }
+        return new Ground(copy, null);
     }
 
     public int getTotalValue(int position) {
-        return elements[position];
+        return grown(position);
     }
 
     public int getElementValue(int position, GroundElement element) {
         if (position < 0 || position >= elements.length)
             throw new IllegalArgumentException("Illegal position");
+        if (element == RESOURCES)
+            return RESOURCES.get(grown(position));
         return element.get(elements[position]);
     }
 
@@ -51,13 +99,131 @@ public class Ground {
     private void changeElementValue(int position, GroundElement element, int value) {
         if (position < 0 || position >= elements.length)
             throw new IllegalArgumentException("Illegal position");
-        elements[position] = element.set(elements[position], value);
+        grow(position);
+        int previous = elements[position];
+        elements[position] = element.set(previous, value);
+        if (element != RESOURCES && (element.get(previous) > 0) != (value > 0))
+            setNonZero(element, position, value > 0);
+        if (element == ELEVATION && growth != null)
+            growthMarks[position] = growth.getTotal(position, value);
     }
 
     public void forEach(Process process) {
         for (int p = 0; p < elements.length; p++) {
-            process.accept(p, elements[p]);
+            process.accept(p, grown(p));
+        }
+    }
+
+    private void setNonZero(GroundElement element, int position, boolean value) {
+        long bit = 1L << position;
+        if (value)
+            nonZero[element.ordinal()].accumulateAndGet(position >> 6, bit, (word, b) -> word | b);
+        else
+            nonZero[element.ordinal()].accumulateAndGet(position >> 6, bit, (word, b) -> word & ~b);
+    }
+
+    /**
+     * Reduce the value of an element by one at a random sample of positions. Each position is
+     * sampled independently with a probability of {@code 1 / halfLife}. Rather than test every
+     * position, the number of positions to pass over before the next sampled position is drawn from
+     * a geometric distribution, and positions where the element is zero are not counted because
+     * reducing them has no effect. Resources grow lazily so are not tracked, and are sampled from
+     * all positions.
+     *
+     * @param element the element to reduce
+     * @param halfLife the average number of ticks between reductions at each position
+     * @param random the source of randomness for sampling
+     * @param reduced called with each position that was reduced
+     */
+    void decay(GroundElement element, int halfLife, Random random, IntConsumer reduced) {
+        double logSkip = Math.log1p(-1.0 / halfLife);
+        if (element == RESOURCES) {
+            for (long p = gap(logSkip, random); p < elements.length; p += 1 + gap(logSkip, random)) {
+                substractElementValue((int) p, element, 1);
+                reduced.accept((int) p);
+            }
+        } else {
+            AtomicLongArray words = nonZero[element.ordinal()];
+            long skip = gap(logSkip, random);
+            for (int w = 0; w < words.length(); w++) {
+                long word = words.get(w);
+                int count = Long.bitCount(word);
+                if (skip >= count) {
+                    skip -= count;
+                    continue;
+                }
+                while (word != 0) {
+                    long bit = Long.lowestOneBit(word);
+                    word ^= bit;
+                    if (skip-- == 0) {
+                        int position = w * 64 + Long.numberOfTrailingZeros(bit);
+                        substractElementValue(position, element, 1);
+                        reduced.accept(position);
+                        skip = gap(logSkip, random);
+                    }
+                }
+            }
         }
     }
 
+    /**
+     * Get the number of positions to pass over before the next sampled position, given the log of
+     * the probability that a position is not sampled.
+     */
+    private static long gap(double logSkip, Random random) {
+        if (logSkip == Double.NEGATIVE_INFINITY)
+            return 0;
+        return (long) (Math.log(1.0 - random.nextDouble()) / logSkip);
+    }
+
+    /**
+     * Apply all growth to every position and then run a change to the growth ledger. The growth
+     * at each position is subsequently measured from the changed ledger.
+     *
+     * @param change the change to the ledger
+     */
+    void changeGrowth(Runnable change) {
+        growAll();
+        change.run();
+        for (int p = 0; p < elements.length; p++) {
+            growthMarks[p] = growth.getTotal(p, ELEVATION.get(elements[p]));
+        }
+    }
+
+    private void growAll() {
+        if (growth != null) {
+            for (int p = 0; p < elements.length; p++) {
+                grow(p);
+            }
+        }
+    }
+
+    /**
+     * Get the elements at a position including the resources grown since it was last changed,
+     * without storing the growth.
+     */
+    private int grown(int position) {
+        int input = elements[position];
+        if (growth == null)
+            return input;
+        long grown = growth.getTotal(position, ELEVATION.get(input)) - growthMarks[position];
+        if (grown <= 0)
+            return input;
+        return RESOURCES.set(input, (int) Math.min(RESOURCES.getMaximum(), RESOURCES.get(input) + grown));
+    }
+
+    /**
+     * Store the resources grown at a position since it was last changed. This is only called when
+     * changing the ground, which is never done concurrently for the same position.
+     */
+    private void grow(int position) {
+        if (growth != null) {
+            int input = elements[position];
+            long total = growth.getTotal(position, ELEVATION.get(input));
+            if (total > growthMarks[position]) {
+                elements[position] = grown(position);
+                growthMarks[position] = total;
+            }
+        }
+    }
 }
@@ -1,67 +1,168 @@
 package neurevolve.world;
 
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 import neurevolve.organism.Recipe;
 import neurevolve.organism.Replicator;
 
+/**
+ * A <code>Mutator</code> copies a recipe with transcription errors. Copying a recipe is a sequence
+ * of trials, two for each position copied: one that may flip a bit of the copied value and one that
+ * may move the copy position by up to 8 positions in either direction. Each trial mutates with a
+ * probability set by the mutation rate and the size of the recipe.
+ *
+ * <p>
+ * Rather than rolling for each trial, the number of trials until the next mutation is drawn from
+ * the geometric distribution, and the values between mutations are copied in bulk. If no mutation
+ * falls within the copy, the recipe is not copied at all but shared with the new organism. A
+ * mutator has no state of its own, so a single mutator is shared for each mutation rate.
+ *
+ * <p>
+ * Shared mutators draw from the thread's own random number generator. A mutator can instead be
+ * given a source of randomness so that mutations are repeatable.
+ */
 class Mutator implements Replicator {
 
     private static final int MAX_RATE = 300;
 
-    private final Random random = new Random();
+    /**
+     * Extra room allowed in the copy for positions repeated by mutations.
+     */
+    private static final int SLACK = 16;
+
+    private static final Mutator[] MUTATORS = new Mutator[MAX_RATE + 1];
+
+    static {
+        for (int rate = 0; rate <= MAX_RATE; rate++) {
+            MUTATORS[rate] = new Mutator(rate);
+        }
+    }
+
     private final int mutationRate;
-    private int mutationCount = 0;
-    private int size = 0;
+    private final Random random;
 
     Mutator(final int mutationRate) {
-        this.mutationRate = Math.min(MAX_RATE, mutationRate);
+        this(mutationRate, null);
+    }
+
+    private Mutator(int mutationRate, Random random) {
+        this.mutationRate = Math.max(0, Math.min(MAX_RATE, mutationRate));
+        this.random = random;
+    }
+
+    /**
+     * Get the shared mutator for a mutation rate.
+     *
+     * @param mutationRate the mutation rate
+     * @return a mutator for the rate
+     */
+    static Mutator forRate(int mutationRate) {
+        return MUTATORS[Math.max(0, Math.min(MAX_RATE, mutationRate))];
+    }
+
+    /**
+     * Get a mutator for a mutation rate that draws from a given source of randomness.
+     *
+     * @param mutationRate the mutation rate
+     * @param random the source of randomness, or null to use the shared mutator for the rate
+     * @return a mutator for the rate
+     */
+    static Mutator forRate(int mutationRate, Random random) {
+        return random == null ? forRate(mutationRate) : new Mutator(mutationRate, random);
+    }
+
+    private Random random() {
+        return random == null ? ThreadLocalRandom.current() : random;
     }
 
     @Override
-    public Recipe copyInstructions(byte[] instructions, int size, int colour) {
-        this.mutationCount = 0;
-        this.size = size;
-        List<Byte> copy = new LinkedList<>();
-        for (int pos = 0; pos < size; pos += advance()) {
-            if (pos >= 0) {
-                copy.add(copy(instructions[pos]));
-            }
-        }
-        Recipe recipe = new Recipe(colour(colour));
-        copy.forEach(recipe::add);
-        return recipe;
+    public Recipe replicate(Recipe recipe) {
+        Random random = random();
+        double probability = mutationProbability(recipe.size());
+        long gap = nextGap(random, probability);
+        if (gap >= 2L * recipe.size())
+            return recipe;
+        else
+            return recipe.replicate((instructions, size, colour)
+                    -> copy(instructions, size, colour, random, probability, gap));
     }
 
-    private boolean mutate() {
-        boolean mutated = mutationRate > 0 && random.nextInt(MAX_RATE * size / mutationRate) == 0;
-        if (mutated) {
-            mutationCount++;
-        }
-        return mutated;
+    @Override
+    public Recipe copyInstructions(byte[] instructions, int size, int colour) {
+        Random random = random();
+        double probability = mutationProbability(size);
+        return copy(instructions, size, colour, random, probability, nextGap(random, probability));
     }
 
-    private int advance() {
-        if (mutate()) {
-            return random.nextInt(17) - 8;
-        } else {
-            return 1;
+    /**
+     * Copy instructions with mutations, given the number of trials before the first mutation.
+     */
+    private Recipe copy(byte[] instructions, int size, int colour, Random random,
+            double probability, long gap) {
+        byte[] copy = new byte[size + SLACK];
+        int length = 0;
+        int mutationCount = 0;
+        int pos = 0;
+        while (pos < size) {
+            if (pos >= 0) {
+                int run = (int) Math.min(size - pos, gap / 2);
+                if (run > 0) {
+                    copy = ensureCapacity(copy, length + run);
+                    System.arraycopy(instructions, pos, copy, length, run);
+                    length += run;
+                    pos += run;
+                    gap -= 2L * run;
+                    continue;
+                }
+                byte code = instructions[pos];
+                if (gap-- == 0) {
+                    mutationCount++;
+                    gap = nextGap(random, probability);
+                    code ^= 1 << random.nextInt(8);
+                }
+                copy = ensureCapacity(copy, length + 1);
+                copy[length++] = code;
+            }
+            if (gap-- == 0) {
+                mutationCount++;
+                gap = nextGap(random, probability);
+                pos += random.nextInt(17) - 8;
+            } else {
+                pos++;
+            }
         }
+        if (mutationCount > 0)
+            colour ^= 1 << random.nextInt(24);
+        return new Recipe(colour, copy, length);
     }
 
-    private byte copy(byte code) {
-        if (mutate()) {
-            code ^= 1 << random.nextInt(8);
-        }
-        return code;
+    /**
+     * Get the probability that each trial mutates for a recipe of a given size.
+     */
+    private double mutationProbability(int size) {
+        if (mutationRate == 0 || size == 0)
+            return 0;
+        else
+            return 1.0 / Math.max(1, MAX_RATE * size / mutationRate);
     }
 
-    private int colour(int colour) {
-        if (mutationCount > 0) {
-            colour ^= 1 << random.nextInt(24);
-        }
-        return colour;
+    /**
+     * Draw the number of trials that do not mutate before the next trial that does.
+     */
+    private static long nextGap(Random random, double probability) {
+        if (probability == 0)
+            return Long.MAX_VALUE;
+        else if (probability == 1)
+            return 0;
+        else
+            return (long) (Math.log(1 - random.nextDouble()) / Math.log1p(-probability));
     }
 
+    private static byte[] ensureCapacity(byte[] copy, int capacity) {
+        if (capacity > copy.length)
+            return Arrays.copyOf(copy, Math.max(capacity, copy.length + SLACK));
+        else
+            return copy;
+    }
 }
@@ -1,39 +1,78 @@
 package neurevolve.world;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.EnumMap;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ToIntFunction;
 import neurevolve.organism.Organism;
 import static neurevolve.world.Angle.FORWARD;
 
 /**
  * A <code>Population</code> represents a set of organisms in a {@link Space}.
+ *
+ * <p>
+ * Organisms in regions of the space that are far enough apart can be added, moved and removed
+ * concurrently. The state of each position and each organism's slot is only changed by the thread
+ * processing the region containing it, so only the structures shared by all regions are changed
+ * atomically: the bitmap of occupied positions, the stack of free slots and the counts. None of
+ * these are locked.
  */
 public class Population {
 
+    private static final int INITIAL_SLOTS = 64;
+    private static final int ACTIVITY_COUNT = WorldActivity.values().length;
+
     private final Space space;
     private final Configuration config;
     private final Organism[] organisms;
-    private final Map<Organism, OrganismInfo> info = new HashMap<>();
 
-    private class OrganismInfo {
+    /*
+     * A bit for each position that is set if the position has an organism, so that organisms can
+     * be found in position order without visiting empty positions. Each word is changed atomically.
+     */
+    private final AtomicLongArray occupied;
 
-        private final int position;
-        private int direction;
-        private EnumMap<WorldActivity, Integer> activityCount = new EnumMap<>(WorldActivity.class);
+    /*
+     * The state of each organism is held in arrays indexed by a slot id which is stored in the
+     * organism while it is part of the population. Slots of removed organisms are reused.
+     */
+    private Organism[] slotOrganisms = new Organism[INITIAL_SLOTS];
+    private int[] positions = new int[INITIAL_SLOTS];
+    private byte[] directions = new byte[INITIAL_SLOTS];
+    private int[] activityCounts = new int[INITIAL_SLOTS * ACTIVITY_COUNT];
+    private final AtomicInteger slotCount = new AtomicInteger();
+    private final AtomicInteger size = new AtomicInteger();
 
-        public OrganismInfo(int position, int direction) {
-            this.position = position;
-            this.direction = direction;
-        }
+    /*
+     * The slots of removed organisms form a stack linked through nextFreeSlots. The low 32 bits of
+     * the head are the top slot plus one, or zero if the stack is empty. The high 32 bits count the
+     * changes to the stack, so that a slot taken and returned between reading the head and
+     * replacing it cannot cause the stack to be corrupted.
+     */
+    private int[] nextFreeSlots = new int[INITIAL_SLOTS];
+    private final AtomicLong freeSlotHead = new AtomicLong();
+    private final AtomicInteger freeSlotCount = new AtomicInteger();
 
-        public OrganismInfo copy() {
-            return new OrganismInfo(position, direction);
-        }
+    /*
+     * Each call to processGeneration starts a new generation. Organisms are stamped with the
+     * generation in which they were added and the last generation in which they were processed.
+     */
+    private int generation = 0;
+    private int[] birthGenerations = new int[INITIAL_SLOTS];
+    private int[] processedGenerations = new int[INITIAL_SLOTS];
+
+    /**
+     * An operation on an organism and its position in the population.
+     */
+    @FunctionalInterface
+    public interface Processor {
+
+        void process(int position, Organism organism);
     }
 
     /**
@@ -46,17 +85,33 @@ public class Population {
         this.space = space;
         this.config = config;
         organisms = new Organism[space.size()];
+        occupied = new AtomicLongArray((space.size() + 63) / 64);
     }
 
     /**
-     * Copy the population to allow operations that won't impact on the copy.
+     * Copy the population to allow operations that won't impact on the copy. The population must
+     * not be changed while it is being copied.
      *
      * @return a copy of the population
      */
-    public synchronized Population copy() {
+    public Population copy() {
         Population copy = new Population(space, config);
         System.arraycopy(organisms, 0, copy.organisms, 0, space.size());
-        info.forEach((o, i) -> copy.info.put(o, i.copy()));
+        for (int w = 0; w < occupied.length(); w++) {
+            copy.occupied.set(w, occupied.get(w));
+        }
+        copy.slotOrganisms = slotOrganisms.clone();
+        copy.positions = positions.clone();
+        copy.directions = directions.clone();
+        copy.activityCounts = new int[activityCounts.length];
+        copy.nextFreeSlots = nextFreeSlots.clone();
+        copy.freeSlotHead.set(freeSlotHead.get());
+        copy.freeSlotCount.set(freeSlotCount.get());
+        copy.slotCount.set(slotCount.get());
+        copy.size.set(size.get());
+        copy.generation = generation;
+        copy.birthGenerations = birthGenerations.clone();
+        copy.processedGenerations = processedGenerations.clone();
         return copy;
     }
 
@@ -66,7 +121,7 @@ public class Population {
      * @return the number of organisms that have been added
      */
     public int size() {
-        return info.size();
+        return size.get();
     }
 
     /**
@@ -81,7 +136,11 @@ public class Population {
      */
     public List<List<Organism>> getSpecies(int sampleSize, int maxDistance) {
         List<List<Organism>> populations = new ArrayList<>();
-        List<Organism> sample = new ArrayList<>(info.keySet());
+        List<Organism> sample = new ArrayList<>(size());
+        for (int slot = 0; slot < slotCount.get(); slot++) {
+            if (slotOrganisms[slot] != null)
+                sample.add(slotOrganisms[slot]);
+        }
         Collections.shuffle(sample);
         sample.stream().limit(sampleSize).forEach((org) -> addToPopulation(org, populations, maxDistance));
         return populations;
@@ -91,7 +150,7 @@ public class Population {
         Optional<List<Organism>> population = populations.stream()
                 .filter(pop -> pop.stream()
                         .limit(5)
-                        .allMatch(o -> organism.getDifference(o) < maxDistance))
+                        .allMatch(o -> organism.getDifference(o, maxDistance - 1) < maxDistance))
                 .findFirst();
         if (!population.isPresent()) {
             population = Optional.of(new ArrayList<>());
@@ -100,6 +159,144 @@ public class Population {
         population.get().add(organism);
     }
 
+    /**
+     * Process each organism in the population in position order without copying the population.
+     * Each organism that was in the population at the start of processing is processed exactly
+     * once, even if it moves during processing. Organisms added during processing are not
+     * processed until the next call. The processor may add, move and remove organisms.
+     *
+     * @param processor the operation to apply to each organism
+     */
+    public void processGeneration(Processor processor) {
+        startGeneration();
+        processRegion(0, space.getWidth(), 0, space.getHeight(), processor);
+    }
+
+    /**
+     * Start a new generation of processing. Organisms added after this call are not processed by
+     * {@link #processRegion} until the next generation starts.
+     */
+    public void startGeneration() {
+        generation++;
+    }
+
+    /**
+     * Process the organisms within a rectangular region of the space, in position order, that have
+     * not already been processed in the current generation. Regions that are at least two
+     * positions apart plus the distance any organism can travel in one activation may be
+     * processed concurrently, provided that enough slots have been reserved using
+     * {@link #reserveSlots} for all organisms added during processing.
+     *
+     * @param fromX the leftmost column of the region
+     * @param toX the column after the rightmost column of the region
+     * @param fromY the top row of the region
+     * @param toY the row after the bottom row of the region
+     * @param processor the operation to apply to each organism
+     */
+    public void processRegion(int fromX, int toX, int fromY, int toY, Processor processor) {
+        for (int y = fromY; y < toY; y++) {
+            int end = space.position(fromX, y) + toX - fromX;
+            int position = nextOccupied(space.position(fromX, y), end);
+            while (position >= 0) {
+                Organism organism = organisms[position];
+                if (organism != null) {
+                    int slot = organism.getSlot();
+                    if (birthGenerations[slot] != generation && processedGenerations[slot] != generation) {
+                        processedGenerations[slot] = generation;
+                        processor.process(position, organism);
+                    }
+                }
+                position = nextOccupied(position + 1, end);
+            }
+        }
+    }
+
+    /**
+     * Find the first position with an organism at or after a given position.
+     *
+     * @param from the position to start searching from
+     * @return the position of the next organism, or -1 if there are no organisms at or after
+     * <tt>from</tt>
+     */
+    public int nextOccupied(int from) {
+        return nextOccupied(from, organisms.length);
+    }
+
+    /**
+     * Find the first position with an organism within a range of positions. The search skips a
+     * word of 64 empty positions at a time.
+     *
+     * @param from the first position to search
+     * @param to the position after the last position to search
+     * @return the position of the first organism in the range, or -1 if there are no organisms in
+     * the range
+     */
+    public int nextOccupied(int from, int to) {
+        if (from >= to)
+            return -1;
+        int index = from >> 6;
+        long word = occupied.get(index) & (-1L << from);
+        while (word == 0) {
+            if (++index << 6 >= to)
+                return -1;
+            word = occupied.get(index);
+        }
+        int position = (index << 6) + Long.numberOfTrailingZeros(word);
+        return position < to ? position : -1;
+    }
+
+    private void setOccupied(int position) {
+        occupied.accumulateAndGet(position >> 6, 1L << position, (word, bit) -> word | bit);
+    }
+
+    private void clearOccupied(int position) {
+        occupied.accumulateAndGet(position >> 6, 1L << position, (word, bit) -> word & ~bit);
+    }
+
+    /**
+     * Ensure that a number of organisms can be added without the population's internal storage
+     * being reallocated. The population must not be changed while slots are being reserved.
+     *
+     * @param count the number of organisms to reserve space for
+     */
+    public void reserveSlots(int count) {
+        int required = slotCount.get() + Math.max(0, count - freeSlotCount.get());
+        if (required > slotOrganisms.length)
+            resizeSlots(required);
+    }
+
+    /**
+     * Get the maximum value of a property of the organisms in the population.
+     *
+     * @param property the property to get for each organism
+     * @return the maximum value, or 0 if the population is empty
+     */
+    public int getMaximum(ToIntFunction<Organism> property) {
+        int maximum = 0;
+        for (int slot = 0; slot < slotCount.get(); slot++) {
+            if (slotOrganisms[slot] != null)
+                maximum = Math.max(maximum, property.applyAsInt(slotOrganisms[slot]));
+        }
+        return maximum;
+    }
+
+    /**
+     * Get the organisms in the population in position order. If the population is changed while
+     * the organisms are being collected, the list may include organisms that are being removed and
+     * miss organisms that are being added.
+     *
+     * @return a list of the current organisms
+     */
+    public List<Organism> getOrganisms() {
+        List<Organism> list = new ArrayList<>(size());
+        for (int p = nextOccupied(0); p >= 0; p = nextOccupied(p + 1)) {
+            Organism organism = organisms[p];
+            if (organism != null)
+                list.add(organism);
+        }
+        return list;
+    }
+
     /**
      * Check if a position has an organism
      *
@@ -128,11 +325,84 @@ public class Population {
      * @param direction the direction the organism is facing
      * @throws IllegalArgumentException if the position already has an organism in it
      */
-    public synchronized void addOrganism(Organism organism, int position, int direction) {
+    public void addOrganism(Organism organism, int position, int direction) {
         if (hasOrganism(position))
             throw new IllegalArgumentException("Attempt to add two organisms to same position");
+        int slot = allocateSlot();
+        slotOrganisms[slot] = organism;
+        positions[slot] = position;
+        directions[slot] = (byte) direction;
+        Arrays.fill(activityCounts, slot * ACTIVITY_COUNT, (slot + 1) * ACTIVITY_COUNT, 0);
+        birthGenerations[slot] = generation;
+        organism.setSlot(slot);
         organisms[position] = organism;
-        info.put(organism, new OrganismInfo(position, direction));
+        setOccupied(position);
+        size.incrementAndGet();
+    }
+
+    /**
+     * Take a free slot, or a new slot if there are none. New slots are only added to the storage
+     * if none have been reserved, which cannot happen while regions are processed concurrently.
+     */
+    private int allocateSlot() {
+        int slot = popFreeSlot();
+        if (slot >= 0)
+            return slot;
+        slot = slotCount.getAndIncrement();
+        if (slot >= slotOrganisms.length)
+            resizeSlots(Math.max(slot + 1, slotOrganisms.length * 2));
+        return slot;
+    }
+
+    private int popFreeSlot() {
+        long head;
+        int slot;
+        do {
+            head = freeSlotHead.get();
+            slot = (int) head - 1;
+            if (slot < 0)
+                return -1;
+        } while (!freeSlotHead.compareAndSet(head, nextFreeSlotHead(head, nextFreeSlots[slot])));
+        freeSlotCount.decrementAndGet();
+        return slot;
+    }
+
+    private void pushFreeSlot(int slot) {
+        long head;
+        do {
+            head = freeSlotHead.get();
+            nextFreeSlots[slot] = (int) head - 1;
+        } while (!freeSlotHead.compareAndSet(head, nextFreeSlotHead(head, slot)));
+        freeSlotCount.incrementAndGet();
+    }
+
+    /**
+     * Get the head of the stack of free slots after a change that leaves a given slot on top.
+     */
+    private static long nextFreeSlotHead(long head, int top) {
+        return ((head >>> 32) + 1) << 32 | (top + 1);
+    }
+
+    private void resizeSlots(int capacity) {
+        slotOrganisms = Arrays.copyOf(slotOrganisms, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+        directions = Arrays.copyOf(directions, capacity);
+        activityCounts = Arrays.copyOf(activityCounts, capacity * ACTIVITY_COUNT);
+        nextFreeSlots = Arrays.copyOf(nextFreeSlots, capacity);
+        birthGenerations = Arrays.copyOf(birthGenerations, capacity);
+        processedGenerations = Arrays.copyOf(processedGenerations, capacity);
+    }
+
+    /**
+     * Get the slot for an organism in the population.
+     *
+     * @throws IllegalArgumentException if the organism is not in the population
+     */
+    private int slot(Organism organism) {
+        int slot = organism.getSlot();
+        if (slot < 0 || slot >= slotCount.get() || slotOrganisms[slot] != organism)
+            throw new IllegalArgumentException("Organism is not in population");
+        return slot;
     }
 
     /**
@@ -140,11 +410,48 @@ public class Population {
      *
      * @param organism the organism to remove
      */
-    public synchronized void removeOrganism(Organism organism) {
-        int position = getPosition(organism);
-        assert hasOrganism(position);
-        organisms[position] = null;
-        info.remove(organism);
+    public void removeOrganism(Organism organism) {
+        int slot = slot(organism);
+        assert organisms[positions[slot]] == organism;
+        clearOccupied(positions[slot]);
+        organisms[positions[slot]] = null;
+        slotOrganisms[slot] = null;
+        pushFreeSlot(slot);
+        size.decrementAndGet();
+    }
+
+    /**
+     * Get the position of an organism
+     *
+     * @param organism the organism
+     * @return the organism's position
+     */
+    protected int getPosition(Organism organism) {
+        return positions[slot(organism)];
+    }
+
+    /**
+     * Get the position adjacent to an organism at an angle from the direction it is facing
+     *
+     * @param organism the organism whose position the result is relative to
+     * @param angle the angle of the step to the resulting position
+     * @return the resulting position
+     */
+    protected int getPosition(Organism organism, Angle angle) {
+        int slot = slot(organism);
+        return space.move(positions[slot], angle.add(directions[slot]));
+    }
+
+    /**
+     * Get a position at an offset from an organism that depends on the direction it is facing.
+     *
+     * @param organism the organism whose position the result is relative to
+     * @param offsets the offset for each direction the organism could be facing
+     * @return the resulting position
+     */
+    protected int getRelativePosition(Organism organism, Space.Offset[] offsets) {
+        int slot = slot(organism);
+        return offsets[directions[slot]].from(positions[slot]);
     }
 
     /**
@@ -155,24 +462,26 @@ public class Population {
      * @return the resulting position
      */
     protected int getPosition(Organism organism, Angle... angles) {
-        int position = info.get(organism).position;
+        int slot = slot(organism);
+        int position = positions[slot];
         for (Angle angle : angles) {
-            int direction = angle.add(info.get(organism).direction);
+            int direction = angle.add(directions[slot]);
             position = space.move(position, direction);
         }
         return position;
     }
 
     protected int getActivityCount(Organism organism, WorldActivity activity) {
-        return info.get(organism).activityCount.getOrDefault(activity, 0);
+        return activityCounts[slot(organism) * ACTIVITY_COUNT + activity.ordinal()];
     }
 
     protected void incrementActivityCount(Organism organism, WorldActivity activity) {
-        info.get(organism).activityCount.merge(activity, 1, (n, i) -> n + i);
+        activityCounts[slot(organism) * ACTIVITY_COUNT + activity.ordinal()]++;
     }
 
     protected void resetActivityCount(Organism organism) {
-        info.get(organism).activityCount.clear();
+        int slot = slot(organism);
+        Arrays.fill(activityCounts, slot * ACTIVITY_COUNT, (slot + 1) * ACTIVITY_COUNT, 0);
     }
 
     /**
@@ -182,7 +491,7 @@ public class Population {
      * @return the direction
      */
     protected int getDirection(Organism organism) {
-        return info.get(organism).direction;
+        return directions[slot(organism)];
     }
 
     public void perform(World world, Organism organism, int code) {
@@ -197,9 +506,10 @@ public class Population {
     }
 
     private int getActivityCost(WorldActivity activity, Organism organism) {
-        int cost = config.getActivityCost(activity);
+        Configuration.Snapshot snapshot = config.getSnapshot();
+        int cost = snapshot.getActivityCost(activity);
         int count = getActivityCount(organism, activity);
-        cost = cost * (100 + count * config.getActivityFactor(activity)) / 100;
+        cost = cost * (100 + count * snapshot.getActivityFactor(activity)) / 100;
         return cost;
     }
 
@@ -210,12 +520,13 @@ public class Population {
      * @param angle the angle to add to the current direction
      */
     protected void turn(Organism organism, Angle angle) {
-        info.get(organism).direction = angle.add(getDirection(organism));
+        int slot = slot(organism);
+        directions[slot] = (byte) angle.add(directions[slot]);
     }
 
     /**
      * Move an organism in the direction it is facing. A move consumes energy and if the organism
-     * does not have enough energy it doesn't move
+     * does not have enough energy it doesn't move. Moving resets the organism's activity counts.
      *
      * @param organism the organism to move
      * @param energyCost the cost in energy for the move
@@ -223,13 +534,17 @@ public class Population {
      */
     public boolean moveOrganism(Organism organism, int energyCost) {
         int position = getPosition(organism, FORWARD);
-        int direction = getDirection(organism);
         if (hasOrganism(position))
             throw new IllegalStateException("Attempt to move organism to position with organism");
         if (organism.hasEnergy(energyCost)) {
             organism.reduceEnergy(energyCost);
-            removeOrganism(organism);
-            addOrganism(organism, position, direction);
+            int slot = slot(organism);
+            clearOccupied(positions[slot]);
+            organisms[positions[slot]] = null;
+            organisms[position] = organism;
+            setOccupied(position);
+            positions[slot] = position;
+            Arrays.fill(activityCounts, slot * ACTIVITY_COUNT, (slot + 1) * ACTIVITY_COUNT, 0);
             return true;
         }
         return false;
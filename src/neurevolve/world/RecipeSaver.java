@@ -35,7 +35,7 @@ public class RecipeSaver {
         this.world = world;
     }
 
-    private class InstructionProcessor implements Instruction.Processor {
+    private class InstructionProcessor {
 
         private final Document doc;
 
@@ -43,32 +43,31 @@ public class RecipeSaver {
             this.doc = doc;
         }
 
-        @Override
-        public void process(Instruction instruction, byte... values) {
-            switch (instruction) {
+        public void process(Recipe.Cursor cursor) {
+            switch (cursor.getInstruction()) {
                 case ADD_NEURON:
                     Element addNeuron = addElement("add_neuron");
-                    setInt(addNeuron, "weight", values[0]);
+                    setInt(addNeuron, "weight", cursor.getValue(0));
                     break;
                 case ADD_LINK:
                     Element link = addElement("add_link");
-                    setInt(link, "neuron", values[0]);
-                    setInt(link, "weight", values[1]);
+                    setInt(link, "neuron", cursor.getValue(0));
+                    setInt(link, "weight", cursor.getValue(1));
                     break;
                 case ADD_INPUT:
                     Element input = addElement("add_input");
-                    String name = world.describeInput(Code.toInt(values[0]))
+                    String name = world.describeInput(Code.toInt(cursor.getValue(0)))
                             .toLowerCase().replace(" ", "_");
                     input.setAttribute("input", name);
-                    setInt(input, "weight", values[1]);
+                    setInt(input, "weight", cursor.getValue(1));
                     break;
                 case ADD_DELAY:
                     Element delay = addElement("add_delay");
-                    setInt(delay, "period", values[0]);
+                    setInt(delay, "period", cursor.getValue(0));
                     break;
                 case SET_ACTIVITY:
                     Element setActivity = addElement("set_activity");
-                    WorldActivity activity = WorldActivity.decode(toInt(values[0]));
+                    WorldActivity activity = WorldActivity.decode(toInt(cursor.getValue(0)));
                     setActivity.setAttribute("activity", activity.name().toLowerCase());
                     break;
                 case JUNK:
@@ -76,11 +75,10 @@ public class RecipeSaver {
                     setInt(junk, "value", (byte) -1);
                     break;
                 default:
-                    throw new AssertionError(instruction.name());
+                    throw new AssertionError(cursor.getInstruction().name());
             }
         }
 
-        @Override
         public void junk(byte value) {
             Element junk = addElement("junk");
             junk.setAttribute("value", String.valueOf(Code.toInt(value)));
@@ -101,7 +99,14 @@ public class RecipeSaver {
             Element root = doc.createElement("recipe");
             root.setAttribute("colour", String.valueOf(recipe.getColour()));
             doc.appendChild(root);
-            recipe.forEachInstruction(new InstructionProcessor(doc));
+            InstructionProcessor processor = new InstructionProcessor(doc);
+            Recipe.Cursor cursor = recipe.cursor();
+            while (cursor.next()) {
+                if (cursor.isComplete())
+                    processor.process(cursor);
+                else
+                    processor.junk(cursor.getCode());
+            }
             Transformer transformer = TRANSFORMER_FACTORY.newTransformer();
             transformer.setOutputProperty(OutputKeys.INDENT, "yes");
             StringWriter output = new StringWriter();
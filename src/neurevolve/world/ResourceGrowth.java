@@ -0,0 +1,108 @@
+package neurevolve.world;
+
+import neurevolve.world.Configuration.Value;
+import static neurevolve.world.GroundElement.ELEVATION;
+
+/**
+ * A <code>ResourceGrowth</code> is a ledger of the total resources that have grown at each base
+ * temperature. The base temperature of a position is its latitude temperature less its elevation.
+ * The resources that grow at a position each tick depend only on its base temperature, the seasonal
+ * temperature and the time, so all positions with the same base temperature share an entry in the
+ * ledger.
+ *
+ * <p>
+ * Growing the ledger each tick costs one calculation per base temperature rather than one per
+ * position. {@link Ground} uses the ledger to apply the growth at a position since it was last
+ * accessed. Because growth is never negative and is capped at the maximum resources, applying the
+ * accumulated growth in a single step gives the same result as applying it a tick at a time.
+ */
+final class ResourceGrowth {
+
+    private static final int GROWTH_PERIOD = 100;
+
+    private final Space space;
+    private final Configuration config;
+
+    private int minTemp;
+    private int maxTemp;
+    private int[] rowTemps;
+    private int minBaseTemp;
+    private long[] totals;
+
+    ResourceGrowth(Space space, Configuration config) {
+        this.space = space;
+        this.config = config;
+        updateTemperatureRange();
+    }
+
+    /**
+     * Check if the configured temperature range has changed since the ledger was built. If so, the
+     * base temperature of positions has changed and the ledger needs to be rebuilt using
+     * {@link #updateTemperatureRange} once all positions have been grown.
+     *
+     * @return true if the ledger is out of date
+     */
+    boolean isTemperatureRangeChanged() {
+        Configuration.Snapshot snapshot = config.getSnapshot();
+        return snapshot.getValue(Value.MIN_TEMP) != minTemp
+                || snapshot.getValue(Value.MAX_TEMP) != maxTemp;
+    }
+
+    /**
+     * Rebuild the ledger for the current configured temperature range. All totals are reset to
+     * zero.
+     */
+    void updateTemperatureRange() {
+        Configuration.Snapshot snapshot = config.getSnapshot();
+        minTemp = snapshot.getValue(Value.MIN_TEMP);
+        maxTemp = snapshot.getValue(Value.MAX_TEMP);
+        rowTemps = new int[space.getHeight()];
+        int lowest = Integer.MAX_VALUE;
+        int highest = Integer.MIN_VALUE;
+        for (int y = 0; y < rowTemps.length; y++) {
+            rowTemps[y] = space.scaleByLatitude(space.position(0, y), minTemp, maxTemp);
+            lowest = Math.min(lowest, rowTemps[y]);
+            highest = Math.max(highest, rowTemps[y]);
+        }
+        minBaseTemp = lowest - ELEVATION.getMaximum();
+        totals = new long[highest - minBaseTemp + 1];
+    }
+
+    /**
+     * Add the resources that grow in a tick to the total for each base temperature.
+     *
+     * @param time the current tick
+     * @param seasonalTemp the seasonal temperature for the current tick
+     */
+    void grow(int time, int seasonalTemp) {
+        for (int i = 0; i < totals.length; i++) {
+            totals[i] += getResourcesForTemperature(minBaseTemp + i + seasonalTemp, time);
+        }
+    }
+
+    /**
+     * Get the total resources that have grown at a position since the ledger was built.
+     *
+     * @param position the position
+     * @param elevation the elevation of the position
+     * @return the total growth for the position's base temperature
+     */
+    long getTotal(int position, int elevation) {
+        return totals[rowTemps[position / space.getWidth()] - elevation - minBaseTemp];
+    }
+
+    /**
+     * Get the resources that grow in a tick at a temperature. The resources are increased by temp /
+     * 100 and a further one each temp % 100 ticks.
+     */
+    static int getResourcesForTemperature(int temp, int time) {
+        int resources = 0;
+        if (temp >= GROWTH_PERIOD) {
+            resources = temp / GROWTH_PERIOD;
+            temp %= GROWTH_PERIOD;
+        }
+        if (time % (GROWTH_PERIOD - temp) == 0)
+            resources++;
+        return resources;
+    }
+}
@@ -8,6 +8,16 @@ import java.util.function.BiConsumer;
  * within the frame is represented as an integer. There are methods to move a position in each of
  * the four directions with the value wrapping at the edges of the frame.
  *
+ * <p>
+ * Moving never divides when the width is a power of two, and only divides for horizontal moves
+ * otherwise. Vertical moves wrap by comparing the position with the first and last rows.
+ *
+ * <p>
+ * Fixed offsets of up to {@link #MAX_REACH} in each direction are precomputed as an
+ * {@link Offset}. Each position is classified by whether it lies within reach of each edge, and
+ * each offset holds the change in position, with any wrapping, for every class. Applying an offset
+ * is then a table lookup and an addition.
+ *
  * @author simon
  */
 public class Space {
@@ -17,8 +27,74 @@ public class Space {
     public static final int WEST = 2;
     public static final int SOUTH = 3;
 
+    private static final int[] DX = {1, 0, -1, 0};
+    private static final int[] DY = {0, -1, 0, 1};
+
+    /**
+     * The largest horizontal or vertical distance of an {@link Offset}.
+     */
+    public static final int MAX_REACH = 2;
+
+    /**
+     * The number of classes of coordinate: within reach of the low edge, between the edges and
+     * within reach of the high edge.
+     */
+    private static final int COORDINATE_CLASSES = 2 * MAX_REACH + 1;
+
     private final int width;
     private final int height;
+    private final int size;
+
+    /**
+     * {@code width - 1} if the width is a power of two, otherwise -1.
+     */
+    private final int widthMask;
+    private final int widthShift;
+
+    /**
+     * The class of each position for applying offsets, or null if the space is too small for the
+     * classes to be distinct.
+     */
+    private final byte[] edgeClasses;
+
+    /**
+     * A fixed horizontal and vertical offset whose wrapped change in position is precomputed for
+     * each class of position.
+     */
+    public final class Offset {
+
+        private final int dx;
+        private final int dy;
+        private final int[] deltas;
+
+        private Offset(int dx, int dy) {
+            this.dx = dx;
+            this.dy = dy;
+            if (edgeClasses == null) {
+                deltas = null;
+            } else {
+                deltas = new int[COORDINATE_CLASSES * COORDINATE_CLASSES];
+                for (int cy = 0; cy < COORDINATE_CLASSES; cy++) {
+                    for (int cx = 0; cx < COORDINATE_CLASSES; cx++) {
+                        int position = position(coordinate(cx, width), coordinate(cy, height));
+                        deltas[cy * COORDINATE_CLASSES + cx] = offset(position, dx, dy) - position;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Apply the offset to a position. The position is not checked.
+         *
+         * @param position the starting position
+         * @return the position at the offset from the starting position
+         */
+        public int from(int position) {
+            if (deltas == null)
+                return offset(position, dx, dy);
+            return position + deltas[edgeClasses[position]];
+        }
+    }
 
     /**
      * Construct a <code>Frame</code>.
@@ -32,6 +108,45 @@ public class Space {
             throw new IllegalArgumentException("Zero size frame");
         this.width = width;
         this.height = height;
+        this.size = width * height;
+        this.widthMask = Integer.bitCount(width) == 1 ? width - 1 : -1;
+        this.widthShift = Integer.numberOfTrailingZeros(width);
+        this.edgeClasses = width < COORDINATE_CLASSES || height < COORDINATE_CLASSES
+                ? null : classifyPositions();
+    }
+
+    private byte[] classifyPositions() {
+        byte[] classes = new byte[size];
+        for (int y = 0; y < height; y++) {
+            int cy = coordinateClass(y, height);
+            for (int x = 0; x < width; x++) {
+                classes[y * width + x] = (byte) (cy * COORDINATE_CLASSES + coordinateClass(x, width));
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Get the class of a coordinate: its distance from the low edge if within reach of it, then
+     * one class for between the edges, then the classes within reach of the high edge.
+     */
+    private static int coordinateClass(int coordinate, int length) {
+        if (coordinate < MAX_REACH)
+            return coordinate;
+        else if (coordinate < length - MAX_REACH)
+            return MAX_REACH;
+        else
+            return coordinate - length + COORDINATE_CLASSES;
+    }
+
+    /**
+     * Get a coordinate in a class.
+     */
+    private static int coordinate(int coordinateClass, int length) {
+        if (coordinateClass <= MAX_REACH)
+            return coordinateClass;
+        else
+            return coordinateClass + length - COORDINATE_CLASSES;
     }
 
     public int getWidth() {
@@ -48,7 +163,7 @@ public class Space {
      * @return <tt>width * height</tt>
      */
     public int size() {
-        return width * height;
+        return size;
     }
 
     /**
@@ -75,27 +190,81 @@ public class Space {
      */
     public int move(int position, int direction) {
         checkPosition(position);
-        int x = x(position);
-        int y = y(position);
         switch (direction) {
             case EAST:
-                return position((x + 1) % width, y);
+                return x(position) == width - 1 ? position + 1 - width : position + 1;
             case NORTH:
-                return position(x, (y - 1 + height) % height);
+                return position < width ? position + size - width : position - width;
             case WEST:
-                return position((x - 1 + width) % width, y);
+                return x(position) == 0 ? position + width - 1 : position - 1;
             case SOUTH:
-                return position(x, (y + 1) % height);
+                return position >= size - width ? position + width - size : position + width;
             default:
                 throw new IllegalArgumentException("Illegal direction for move");
         }
     }
 
+    /**
+     * Calculate the position at a horizontal and vertical offset from a position. Will wrap around
+     * the edges of the frame.
+     *
+     * @param position the starting position
+     * @param dx the horizontal offset, with positive values to the east
+     * @param dy the vertical offset, with positive values to the south
+     * @return the position at the given offset from the starting position
+     * @throws IllegalArgumentException if the position is illegal
+     */
+    public int offset(int position, int dx, int dy) {
+        checkPosition(position);
+        int x = x(position) + dx;
+        int y = y(position) + dy;
+        if (x < 0 || x >= width)
+            x = Math.floorMod(x, width);
+        if (y < 0 || y >= height)
+            y = Math.floorMod(y, height);
+        return y * width + x;
+    }
+
+    /**
+     * Precompute a horizontal and vertical offset so that it can be applied to positions without
+     * wrapping each coordinate.
+     *
+     * @param dx the horizontal offset, with positive values to the east
+     * @param dy the vertical offset, with positive values to the south
+     * @return the precomputed offset
+     * @throws IllegalArgumentException if either offset is further than {@link #MAX_REACH}
+     */
+    public Offset getOffset(int dx, int dy) {
+        if (Math.abs(dx) > MAX_REACH || Math.abs(dy) > MAX_REACH)
+            throw new IllegalArgumentException("Offset out of reach");
+        return new Offset(dx, dy);
+    }
+
+    /**
+     * Get the horizontal offset of a step in a direction.
+     *
+     * @param direction the direction of the step
+     * @return 1 for east, -1 for west and 0 otherwise
+     */
+    public static int dx(int direction) {
+        return DX[direction];
+    }
+
+    /**
+     * Get the vertical offset of a step in a direction.
+     *
+     * @param direction the direction of the step
+     * @return 1 for south, -1 for north and 0 otherwise
+     */
+    public static int dy(int direction) {
+        return DY[direction];
+    }
+
     /**
      * Throws an IllegalArgumentException if the given position is illegal
      */
     private void checkPosition(int position) {
-        if (position < 0 || position >= size())
+        if (position < 0 || position >= size)
             throw new IllegalArgumentException("Illegal position");
     }
 
@@ -137,13 +306,13 @@ public class Space {
      * Calculate the horizontal distance of a position from the left edge
      */
     private int x(int position) {
-        return position % width;
+        return widthMask >= 0 ? position & widthMask : position % width;
     }
 
     /**
      * Calculate the vertical distance of a position from the top edge
      */
     private int y(int position) {
-        return position / width;
+        return widthMask >= 0 ? position >> widthShift : position / width;
     }
 }
@@ -50,9 +50,11 @@ public class Time {
      * @return the name of the season
      */
     public String getSeasonName() {
-        if (config.getValue(TEMP_VARIATION) == 0 || config.getValue(YEAR_LENGTH) < 4)
+        Configuration.Snapshot snapshot = config.getSnapshot();
+        int yearLength = snapshot.getValue(YEAR_LENGTH);
+        if (snapshot.getValue(TEMP_VARIATION) == 0 || yearLength < 4)
             return "None";
-        return Season.valueOf(tickCount, config.getValue(YEAR_LENGTH)).getName();
+        return Season.valueOf(tickCount, yearLength).getName();
     }
 
     /**
@@ -63,12 +65,14 @@ public class Time {
      * @return the variation in temperature at the current time of year
      */
     public int getSeasonalTemp() {
-        int seasonLength = config.getValue(YEAR_LENGTH) / 4;
+        Configuration.Snapshot snapshot = config.getSnapshot();
+        int yearLength = snapshot.getValue(YEAR_LENGTH);
+        int seasonLength = yearLength / 4;
         if (seasonLength == 0)
             return 0;
-        int timeFromMidYear = Math.abs(config.getValue(YEAR_LENGTH) / 2 - timeOfYear());
+        int timeFromMidYear = Math.abs(yearLength / 2 - tickCount % yearLength);
         int timeFromMidSeason = seasonLength - timeFromMidYear;
-        return config.getValue(TEMP_VARIATION) * timeFromMidSeason / seasonLength;
+        return snapshot.getValue(TEMP_VARIATION) * timeFromMidSeason / seasonLength;
     }
 
     /**
@@ -77,11 +81,11 @@ public class Time {
      * @return the tick within the year
      */
     public int timeOfYear() {
-        return tickCount % config.getValue(YEAR_LENGTH);
+        return tickCount % config.getSnapshot().getValue(YEAR_LENGTH);
     }
 
     public int getYear() {
-        return tickCount / config.getValue(YEAR_LENGTH);
+        return tickCount / config.getSnapshot().getValue(YEAR_LENGTH);
     }
 
     /**
@@ -1,12 +1,13 @@
 package neurevolve.world;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
 import java.util.OptionalInt;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import neurevolve.network.ActivationFunction;
+import neurevolve.network.Network;
+import neurevolve.organism.BrainPlanCache;
 import neurevolve.organism.Environment;
 import neurevolve.organism.Organism;
 import static neurevolve.world.Angle.*;
@@ -29,12 +30,21 @@ public class World implements Environment {
 
     private final Space space;
     private final Configuration config;
+    private final ResourceGrowth growth;
     private final Ground ground;
     private final Population population;
+    private final FreePositions freePositions;
     private final WorldInput inputs;
+    private final BrainPlanCache brainPlans = new BrainPlanCache();
 
     private final ActivationFunction function;
 
+    /**
+     * The source of randomness for mutation and for placing children, or null to use the thread's
+     * own random number generator.
+     */
+    private Random random = null;
+
     /**
      * Construct a world within a frame with a configuration
      *
@@ -48,7 +58,24 @@ public class World implements Environment {
         this.space = space;
         this.inputs = new WorldInput(this);
         this.population = new Population(space, configuration);
-        this.ground = new Ground(space.size());
+        this.growth = new ResourceGrowth(space, configuration);
+        this.ground = new Ground(space.size(), growth);
+        this.freePositions = new FreePositions(space.size());
+    }
+
+    /**
+     * Use a given source of randomness for mutation and for placing children, rather than each
+     * thread's own random number generator, so that runs of the world can be repeated. Runs are
+     * only repeatable if the population is processed serially.
+     *
+     * @param random the source of randomness
+     */
+    public void setRandom(Random random) {
+        this.random = random;
+    }
+
+    private Random random() {
+        return random == null ? ThreadLocalRandom.current() : random;
     }
 
     /**
@@ -147,10 +174,44 @@ public class World implements Environment {
      */
     public void addElementValue(int position, GroundElement element, int value) {
         ground.addElementValue(position, element, value);
+        if (element == WALL || element == BODY)
+            updateFreePosition(position);
     }
 
     public void decrementElementValue(int position, GroundElement element) {
         ground.substractElementValue(position, element, 1);
+        if (element == WALL || element == BODY)
+            updateFreePosition(position);
+    }
+
+    /**
+     * Reduce the value of an element by one at each position with a probability of
+     * {@code 1 / halfLife}.
+     *
+     * @param element the element to reduce
+     * @param halfLife the average number of ticks between reductions at each position
+     * @param random the source of randomness
+     */
+    void decayElement(GroundElement element, int halfLife, Random random) {
+        if (element == WALL || element == BODY)
+            ground.decay(element, halfLife, random, this::updateFreePosition);
+        else
+            ground.decay(element, halfLife, random, p -> {
+            });
+    }
+
+    /**
+     * Grow the resources at all positions for a tick. Each position's resources grow by an amount
+     * that depends on its temperature. The growth is applied to a position when it is next
+     * accessed.
+     *
+     * @param time the current tick
+     * @param seasonalTemp the seasonal temperature for the current tick
+     */
+    void growResources(int time, int seasonalTemp) {
+        if (growth.isTemperatureRangeChanged())
+            ground.changeGrowth(growth::updateTemperatureRange);
+        growth.grow(time, seasonalTemp);
     }
 
     public void resetActivityCount(Organism organism) {
@@ -190,6 +251,38 @@ public class World implements Environment {
         return population.getPosition(organism, angles);
     }
 
+    /**
+     * Get the position of an organism.
+     *
+     * @param organism the organism
+     * @return the organism's position
+     */
+    public int getPosition(Organism organism) {
+        return population.getPosition(organism);
+    }
+
+    /**
+     * Get the position adjacent to an organism at an angle from the direction it is facing.
+     *
+     * @param organism the organism whose position is used
+     * @param angle the angle to step from the organism's position
+     * @return the resulting position
+     */
+    public int getPosition(Organism organism, Angle angle) {
+        return population.getPosition(organism, angle);
+    }
+
+    /**
+     * Get a position at an offset from an organism that depends on the direction it is facing.
+     *
+     * @param organism the organism whose position is used
+     * @param offsets the offset for each direction the organism could be facing
+     * @return the resulting position
+     */
+    int getRelativePosition(Organism organism, Space.Offset[] offsets) {
+        return population.getRelativePosition(organism, offsets);
+    }
+
     /**
      * Check if there is an organism in a given position
      *
@@ -200,6 +293,16 @@ public class World implements Environment {
         return population.hasOrganism(position);
     }
 
+    /**
+     * Get the organism in a given position
+     *
+     * @param position the position to get the organism for
+     * @return the organism in the position, or <tt>null</tt> if there is no organism
+     */
+    public Organism getOrganism(int position) {
+        return population.getOrganism(position);
+    }
+
     /**
      * Get the energy of the organism at a position.
      *
@@ -239,6 +342,7 @@ public class World implements Environment {
             throw new IllegalArgumentException("Attempt to add organism in non-empty position");
         }
         population.addOrganism(organism, position, direction);
+        freePositions.setFree(position, false);
     }
 
     /**
@@ -247,19 +351,53 @@ public class World implements Environment {
      * @param organism the organism to remove.
      */
     public void removeOrganism(Organism organism) {
+        int position = getPosition(organism);
         population.removeOrganism(organism);
+        updateFreePosition(position);
+    }
+
+    private void updateFreePosition(int position) {
+        freePositions.setFree(position, isEmpty(position) && !hasOrganism(position));
     }
 
     /**
-     * Get all current organisms from a copy of population.
+     * Select a random position that does not have an organism, wall or body, with each such
+     * position equally likely.
+     *
+     * @param random the source of randomness
+     * @return a random free position, or <code>OptionalInt.empty()</code> if there are no free
+     * positions
+     */
+    OptionalInt getRandomFreePosition(Random random) {
+        return freePositions.getRandom(random);
+    }
+
+    Population getPopulation() {
+        return population;
+    }
+
+    Space getSpace() {
+        return space;
+    }
+
+    /**
+     * Get all current organisms, in position order. The stream is not affected by later changes to
+     * the population.
      *
      * @return a stream of the current organisms.
      */
     public Stream<Organism> getOrganisms() {
-        Population copy = population.copy();
-        return allPositions()
-                .filter(copy::hasOrganism)
-                .mapToObj(copy::getOrganism);
+        return population.getOrganisms().stream();
+    }
+
+    /**
+     * Process each organism in the world once, in position order. Organisms added during
+     * processing are not processed.
+     *
+     * @param processor the operation to apply to each organism and its position
+     */
+    public void processPopulation(Population.Processor processor) {
+        population.processGeneration(processor);
     }
 
     public IntStream allPositions() {
@@ -289,9 +427,10 @@ public class World implements Environment {
     }
 
     private void consumeResources(int position, Organism organism) {
-        int consumption = config.getValue(Value.CONSUMPTION_RATE);
+        Configuration.Snapshot snapshot = config.getSnapshot();
+        int consumption = snapshot.getValue(Value.CONSUMPTION_RATE);
         int amount = Math.min(getElementValue(position, RESOURCES), consumption);
-        int maxEnergy = config.getValue(Value.MAX_ENERGY);
+        int maxEnergy = snapshot.getValue(Value.MAX_ENERGY);
         amount = Math.min(amount, maxEnergy - organism.getEnergy());
         amount = Math.max(amount, 0);
         organism.increaseEnergy(amount);
@@ -309,7 +448,10 @@ public class World implements Environment {
         int position = population.getPosition(organism, FORWARD);
         if (isEmpty(position) && !population.hasOrganism(position)) {
             int slope = Math.max(0, getSlope(organism, position));
+            int from = getPosition(organism);
             if (population.moveOrganism(organism, slope)) {
+                freePositions.setFree(position, false);
+                updateFreePosition(from);
                 if (getElementValue(position, RADIATION) > 0) {
                     splitToAnyOpenPosition(0, organism);
                 }
@@ -341,11 +483,11 @@ public class World implements Environment {
      * @return true if the organism split
      */
     public boolean splitOrganism(Organism organism) {
-        return splitToAnyOpenPosition(config.getValue(Value.MIN_SPLIT_TIME), organism);
+        return splitToAnyOpenPosition(config.getSnapshot().getValue(Value.MIN_SPLIT_TIME), organism);
     }
 
     private boolean splitToAnyOpenPosition(int minTime, Organism parent) {
-        if (parent.canDivide(minTime) && parent.getEnergy() >= config.getValue(Value.MIN_SPLIT_ENERGY)) {
+        if (parent.canDivide(minTime) && parent.getEnergy() >= config.getSnapshot().getValue(Value.MIN_SPLIT_ENERGY)) {
             OptionalInt position = openPositionNextTo(getPosition(parent));
             if (position.isPresent()) {
                 splitTo(parent, position.getAsInt());
@@ -360,22 +502,28 @@ public class World implements Environment {
     }
 
     private Mutator mutator(int position) {
-        int mutationRate = config.getValue(Value.NORMAL_MUTATION_RATE)
-                + getElementValue(position, RADIATION) * config.getValue(Value.RADIATION_MUTATION_RATE);
-        return new Mutator(mutationRate);
+        Configuration.Snapshot snapshot = config.getSnapshot();
+        int mutationRate = snapshot.getValue(Value.NORMAL_MUTATION_RATE)
+                + getElementValue(position, RADIATION) * snapshot.getValue(Value.RADIATION_MUTATION_RATE);
+        return Mutator.forRate(mutationRate, random);
     }
 
     /**
-     * Get an adjacent position that does not have an organism, or OptionalInt.empty() if all
-     * adjacent positions have an organism.
+     * Get a random adjacent position that does not have an organism, wall or body, or
+     * OptionalInt.empty() if there is no such position.
      */
     private OptionalInt openPositionNextTo(int position) {
-        final List<Integer> directions = Arrays.asList(EAST, WEST, NORTH, SOUTH);
-        Collections.shuffle(directions);
-        return directions.stream()
-                .mapToInt(dir -> space.move(position, dir))
-                .filter(pos -> !hasOrganism(pos) && isEmpty(pos))
-                .findFirst();
+        int[] open = new int[4];
+        int count = 0;
+        for (int direction = 0; direction < 4; direction++) {
+            int adjacent = space.move(position, direction);
+            if (freePositions.isFree(adjacent))
+                open[count++] = adjacent;
+        }
+        if (count == 0)
+            return OptionalInt.empty();
+        else
+            return OptionalInt.of(open[random().nextInt(count)]);
     }
 
     /**
@@ -401,7 +549,9 @@ public class World implements Environment {
     }
 
     private int getLatitudeTemp(int position) {
-        return space.scaleByLatitude(position, config.getValue(Value.MIN_TEMP), config.getValue(Value.MAX_TEMP));
+        Configuration.Snapshot snapshot = config.getSnapshot();
+        return space.scaleByLatitude(position, snapshot.getValue(Value.MIN_TEMP),
+                snapshot.getValue(Value.MAX_TEMP));
     }
 
     /**
@@ -415,6 +565,41 @@ public class World implements Environment {
         return function.apply(input);
     }
 
+    @Override
+    public boolean isEvaluatedIncrementally() {
+        return config.getSnapshot().isIncremental();
+    }
+
+    @Override
+    public boolean isEliminatingDeadNeurons() {
+        return config.getSnapshot().isEliminatingDeadNeurons();
+    }
+
+    @Override
+    public boolean isCompilingBrains() {
+        return config.getSnapshot().isCompilingBrains();
+    }
+
+    /**
+     * Get the cache of plans for building the brains of organisms in this world.
+     *
+     * @return the world's brain plan cache
+     */
+    @Override
+    public BrainPlanCache getBrainPlanCache() {
+        return brainPlans;
+    }
+
+    @Override
+    public Network.Statistics getStatistics() {
+        return config.getSnapshot().getStatistics();
+    }
+
+    @Override
+    public int getSamplePeriod() {
+        return config.getSnapshot().getSamplePeriod();
+    }
+
     /**
      * Get an input for an organism
      *
@@ -56,11 +56,32 @@ public class WorldInput {
         LOOK_FAR_RIGHT("Far Right", RIGHT, RIGHT);
 
         private final String name;
-        private final Angle[] angles;
+        private final int[] dx = new int[4];
+        private final int[] dy = new int[4];
 
+        /**
+         * Sum the steps of the field for each direction an organism can face.
+         */
         VisionField(String name, Angle... angles) {
             this.name = name;
-            this.angles = angles;
+            for (int direction = 0; direction < 4; direction++) {
+                for (Angle angle : angles) {
+                    dx[direction] += Space.dx(angle.add(direction));
+                    dy[direction] += Space.dy(angle.add(direction));
+                }
+            }
+        }
+
+        /**
+         * Precompute the offset of the field in a space for each direction an organism can face,
+         * so that looking is a single table lookup and addition from the organism's position.
+         */
+        Space.Offset[] getOffsets(Space space) {
+            Space.Offset[] offsets = new Space.Offset[4];
+            for (int direction = 0; direction < 4; direction++) {
+                offsets[direction] = space.getOffset(dx[direction], dy[direction]);
+            }
+            return offsets;
         }
     }
 
@@ -82,7 +103,8 @@ public class WorldInput {
     private void addVisionInput(String name, BiFunction<Organism, Integer, Integer> getter) {
         for (VisionField field : VisionField.values()) {
             String fieldName = "Look " + name + " " + field.name;
-            addInput(fieldName, o -> getter.apply(o, world.getPosition(o, field.angles)));
+            Space.Offset[] offsets = field.getOffsets(world.getSpace());
+            addInput(fieldName, o -> getter.apply(o, world.getRelativePosition(o, offsets)));
         }
     }
 
@@ -5,6 +5,7 @@ import neurevolve.organism.Organism;
 public class WorldStatistics {
 
     private final Time time;
+    private final boolean complexityRecorded;
 
     private int population = 0;
     private int totalComplexity = 0;
@@ -12,18 +13,51 @@ public class WorldStatistics {
     private int totalSize = 0;
     private int totalDescendents = 0;
     private int totalEnergy = 0;
+    private long sensorHits = 0;
+    private long sensorMisses = 0;
 
     public WorldStatistics(Time time) {
+        this(time, true);
+    }
+
+    /**
+     * Construct statistics that optionally exclude the complexity of organisms, which is not kept
+     * up to date when neuron ranges are not recorded.
+     *
+     * @param time the time of the world
+     * @param complexityRecorded true if the complexity of organisms is gathered
+     */
+    public WorldStatistics(Time time, boolean complexityRecorded) {
         this.time = time;
+        this.complexityRecorded = complexityRecorded;
     }
 
     public void add(Organism organism) {
         population++;
-        totalComplexity += organism.complexity();
+        if (complexityRecorded)
+            totalComplexity += organism.complexity();
         totalAge += organism.getAge();
         totalSize += organism.size();
         totalEnergy += organism.getEnergy();
         totalDescendents += organism.getDescendents();
+        sensorHits += organism.getSensorHits();
+        sensorMisses += organism.getSensorMisses();
+    }
+
+    /**
+     * Add the statistics gathered separately for another part of the population.
+     *
+     * @param other the statistics to add
+     */
+    public void add(WorldStatistics other) {
+        population += other.population;
+        totalComplexity += other.totalComplexity;
+        totalAge += other.totalAge;
+        totalSize += other.totalSize;
+        totalEnergy += other.totalEnergy;
+        totalDescendents += other.totalDescendents;
+        sensorHits += other.sensorHits;
+        sensorMisses += other.sensorMisses;
     }
 
     public int getTime() {
@@ -42,7 +76,24 @@ public class WorldStatistics {
         return population;
     }
 
+    /**
+     * Check if the complexity of organisms is gathered.
+     *
+     * @return true if the average complexity is available
+     */
+    public boolean isComplexityRecorded() {
+        return complexityRecorded;
+    }
+
+    /**
+     * Get the average complexity of the organisms.
+     *
+     * @return the average complexity, or <code>Float.NaN</code> if the complexity of organisms is
+     * not gathered
+     */
     public float getAverageComplexity() {
+        if (!complexityRecorded)
+            return Float.NaN;
         return getAverage(totalComplexity);
     }
 
@@ -62,6 +113,24 @@ public class WorldStatistics {
         return getAverage(totalEnergy);
     }
 
+    /**
+     * Get the number of organism inputs satisfied from the organisms' sensor caches.
+     *
+     * @return the total number of cached input reads
+     */
+    public long getSensorHits() {
+        return sensorHits;
+    }
+
+    /**
+     * Get the number of organism inputs that required a query of the world.
+     *
+     * @return the total number of uncached input reads
+     */
+    public long getSensorMisses() {
+        return sensorMisses;
+    }
+
     private float getAverage(float total) {
         if (population == 0) {
             return 0f;
@@ -2,10 +2,17 @@ package neurevolve.world;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.OptionalInt;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import neurevolve.network.Network;
 import neurevolve.organism.Organism;
 import neurevolve.organism.Recipe;
 import static neurevolve.world.Configuration.Value.ACID_TOXICITY;
@@ -16,12 +23,20 @@ import static neurevolve.world.GroundElement.RESOURCES;
 
 public class WorldTicker {
 
+    /**
+     * The smallest tile size for parallel processing. Organisms read positions up to two steps
+     * away, so tiles must be large enough to keep organisms in concurrently processed tiles apart.
+     */
+    public static final int MIN_TILE_SIZE = 5;
+
     private final World world;
     private final Configuration config;
     private final Time time;
     private final List<Runnable> tickListeners = new ArrayList<>();
     private final Random random = new Random();
     private WorldStatistics stats;
+    private int tileSize = 0;
+    private boolean senseThinkAct = false;
 
     public WorldTicker(World world, Configuration config) {
         this.world = world;
@@ -29,6 +44,19 @@ public class WorldTicker {
         this.time = new Time(config);
     }
 
+    /**
+     * Set the seed of the random number generator used to seed organisms and decay elements, and
+     * give the same generator to the world for mutation and placing children, so that repeated
+     * runs from the same world are identical. Runs are only repeatable if the population is
+     * processed serially.
+     *
+     * @param seed the initial seed
+     */
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+        world.setRandom(random);
+    }
+
     /**
      * Add a {@code Runnable} to call after each tick.
      *
@@ -47,6 +75,50 @@ public class WorldTicker {
         tickListeners.remove(listener);
     }
 
+    /**
+     * Set the size of the tiles used to process the population in parallel. The space is divided
+     * into tiles which are processed concurrently in a checkerboard pattern, so that organisms in
+     * tiles processed at the same time can never interact. Tiles are enlarged if necessary to allow
+     * for organisms able to perform many activities, and hence move many positions, in one tick.
+     * The order in which organisms are processed differs from serial processing.
+     *
+     * @param tileSize the minimum width and height of each tile, or 0 to process the population
+     * serially
+     * @throws IllegalArgumentException if <tt>tileSize &lt; 0</tt> or <tt>tileSize</tt> is not
+     * zero and less than {@link #MIN_TILE_SIZE}
+     */
+    public void setTileSize(int tileSize) {
+        if (tileSize < 0 || tileSize > 0 && tileSize < MIN_TILE_SIZE)
+            throw new IllegalArgumentException("Illegal tile size");
+        this.tileSize = tileSize;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * Set whether the population is processed in separate sense, think and act phases. In the
+     * first phase, the energy of all organisms is adjusted. In the second phase all organisms sense
+     * the unchanging world and choose their activities, in parallel. In the final phase, conflicts
+     * between the chosen activities (such as two organisms moving to the same position, or eating,
+     * attacking or dividing into the same position) are resolved by priority: organisms act in
+     * order of their energy after thinking, highest first, so each contested position goes to the
+     * contender with the most energy. Ties are broken by the ticker's random number generator, so
+     * resolution is deterministic for a given seed. Unlike normal processing, organisms do not see
+     * the effects of activities performed in the same tick. This mode takes precedence over the
+     * tile size.
+     *
+     * @param senseThinkAct true to process the population in phases
+     */
+    public void setSenseThinkAct(boolean senseThinkAct) {
+        this.senseThinkAct = senseThinkAct;
+    }
+
+    public boolean isSenseThinkAct() {
+        return senseThinkAct;
+    }
+
     public WorldStatistics getStats() {
         return stats;
     }
@@ -71,20 +143,37 @@ public class WorldTicker {
 
     /**
      * Advance the world 1 time unit. Add resources at all positions based on the temperature.
-     * Process all organisms.
+     * Process all organisms. Changes to the configuration made during the tick take effect at the
+     * end of the tick.
      */
     public void tick() {
-        time.tick();
-        seedOrganisms();
-        growResources();
-        halfLives();
-        processPopulation();
+        config.startTick();
+        try {
+            time.tick();
+            seedOrganisms();
+            growResources();
+            halfLives();
+            processPopulation();
+        } finally {
+            config.endTick();
+        }
         tickListeners.stream().collect(Collectors.toList()).forEach(Runnable::run);
     }
 
+    /**
+     * Add seed organisms at random free positions until the population reaches the seed count or
+     * there are no free positions.
+     */
     private void seedOrganisms() {
-        if (world.getPopulationSize() < config.getValue(Configuration.Value.SEED_COUNT))
-            addSeedOrganism(createSeedRecipe());
+        Configuration.Snapshot snapshot = config.getSnapshot();
+        int count = snapshot.getValue(Configuration.Value.SEED_COUNT) - world.getPopulationSize();
+        for (int i = 0; i < count; i++) {
+            OptionalInt position = world.getRandomFreePosition(random);
+            if (!position.isPresent())
+                break;
+            world.addOrganism(new Organism(world, snapshot.getValue(Configuration.Value.INITIAL_ENERGY),
+                    createSeedRecipe()), position.getAsInt(), random.nextInt(4));
+        }
     }
 
     private Recipe createSeedRecipe() {
@@ -93,80 +182,169 @@ public class WorldTicker {
     }
 
     private Recipe replicateWithRandomColour(byte[] instructions, int size, int colour) {
-        Recipe copy = new Recipe(random.nextInt(1 << 24));
-        IntStream.range(0, size)
-                .forEach(i -> copy.add(instructions[i]));
-        return copy;
-    }
-
-    private void addSeedOrganism(Recipe recipe) {
-        int position = random.nextInt(world.getSpaceSize());
-        if (!world.hasOrganism(position) && world.isEmpty(position)) {
-            world.addOrganism(new Organism(world, config.getValue(Configuration.Value.INITIAL_ENERGY), recipe),
-                    position, random.nextInt(4));
-        }
+        return new Recipe(random.nextInt(1 << 24), Arrays.copyOf(instructions, size), size);
     }
 
     /**
      * Grow all resources in the world according to their temperature. The resources are increased
      * by temp / 100 and a further one each temp % 100 ticks.
      */
-    private void growResources() {
-        world.allPositions().forEach(this::growResourcesAtPosition);
-    }
-
-    private void growResourcesAtPosition(int position) {
-        int resources = getResourcesForTemperature(getTemperature(position));
-        world.addElementValue(position, RESOURCES, resources);
+    void growResources() {
+        world.growResources(getTime(), time.getSeasonalTemp());
     }
 
     public int getTemperature(int position) {
         return world.getTemperature(position) + time.getSeasonalTemp();
     }
 
-    private int getResourcesForTemperature(int temp) {
-        int resources = 0;
-        int growthPeriod = 100;
-        while (temp >= growthPeriod) {
-            resources++;
-            temp -= growthPeriod;
-        }
-        if (getTime() % (growthPeriod - temp) == 0) {
-            resources++;
-        }
-        return resources;
-    }
-
-    private void halfLives() {
+    void halfLives() {
         Arrays.stream(GroundElement.values())
                 .forEach(this::halfLife);
     }
 
     private void halfLife(GroundElement element) {
-        int halfLife = config.getHalfLife(element);
+        int halfLife = config.getSnapshot().getHalfLife(element);
         if (halfLife > 0 && halfLife < 1000) {
-            world.allPositions()
-                    .filter(i -> random.nextInt(halfLife) == 0)
-                    .forEach(p -> world.decrementElementValue(p, element));
+            world.decayElement(element, halfLife, random);
         }
     }
 
     /**
-     * Process the population. This uses a copy of the population array so that changes that occur
-     * during processing do not interfere with the current state.
+     * Process the population. Each organism present at the start of processing is processed once,
+     * in position order. Organisms born during processing are not processed until the next tick.
      */
     public void processPopulation() {
-        stats = new WorldStatistics(time);
-        Population copy = world.getPopulationCopy();
-        world.allPositions()
-                .filter(copy::hasOrganism)
-                .forEach(i -> processPosition(i, copy.getOrganism(i)));
+        stats = newStatistics();
+        if (senseThinkAct)
+            processPopulationInPhases();
+        else if (tileSize == 0 || !processPopulationInParallel())
+            world.processPopulation((p, o) -> processPosition(p, o, stats));
+    }
+
+    /**
+     * Create statistics that only gather the complexity of organisms when their neuron ranges are
+     * recorded.
+     */
+    private WorldStatistics newStatistics() {
+        return new WorldStatistics(time,
+                config.getSnapshot().getStatistics() != Network.Statistics.OFF);
+    }
+
+    /**
+     * Process the population in separate sense-think and act phases.
+     */
+    private void processPopulationInPhases() {
+        List<Organism> organisms = world.getOrganisms().collect(Collectors.toList());
+        organisms.parallelStream().forEach(organism -> {
+            adjustEnergy(world.getPosition(organism), organism);
+            world.resetActivityCount(organism);
+        });
+        organisms.parallelStream().forEach(Organism::think);
+        resolveConflicts(organisms);
+        for (Organism organism : organisms) {
+            if (!organism.isDead())
+                organism.act();
+            if (organism.isDead()) {
+                int position = world.getPosition(organism);
+                world.removeOrganism(organism);
+                world.addElementValue(position, BODY, 1);
+            } else {
+                stats.add(organism);
+            }
+        }
+    }
+
+    /**
+     * Order organisms so that the one with the highest priority acts first, and so wins any
+     * position that other organisms also chose to act on. Priority is by energy, with ties in a
+     * random order.
+     */
+    private void resolveConflicts(List<Organism> organisms) {
+        Collections.shuffle(organisms, random);
+        organisms.sort(Comparator.comparingInt(Organism::getEnergy).reversed());
+    }
+
+    /**
+     * Process the population in tiles, in parallel.
+     *
+     * @return false if the space is too small to be divided into tiles
+     */
+    private boolean processPopulationInParallel() {
+        Population population = world.getPopulation();
+        Space space = world.getSpace();
+        int reach = population.getMaximum(Organism::getActivityLimit);
+        int size = Math.max(tileSize, 2 * reach + 3);
+        int columns = space.getWidth() / size;
+        int rows = space.getHeight() / size;
+        if (columns * rows < 2)
+            return false;
+        population.reserveSlots((int) Math.min(space.size() - population.size(),
+                (long) population.size() * Math.max(1, reach)));
+        population.startGeneration();
+        for (List<Callable<WorldStatistics>> phase : makePhases(population, space, columns, rows)) {
+            for (Future<WorldStatistics> result : ForkJoinPool.commonPool().invokeAll(phase)) {
+                stats.add(getResult(result));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Divide the tiles into phases such that no two tiles in a phase are adjacent, including across
+     * the edges of the space. An odd number of tiles in a row or column requires the last tile to
+     * be in a separate phase.
+     */
+    private List<List<Callable<WorldStatistics>>> makePhases(Population population, Space space,
+            int columns, int rows) {
+        List<List<Callable<WorldStatistics>>> phases = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            phases.add(new ArrayList<>());
+        }
+        for (int column = 0; column < columns; column++) {
+            for (int row = 0; row < rows; row++) {
+                int fromX = column * space.getWidth() / columns;
+                int toX = (column + 1) * space.getWidth() / columns;
+                int fromY = row * space.getHeight() / rows;
+                int toY = (row + 1) * space.getHeight() / rows;
+                phases.get(phase(column, columns) + 3 * phase(row, rows)).add(() -> {
+                    WorldStatistics tileStats = newStatistics();
+                    population.processRegion(fromX, toX, fromY, toY,
+                            (p, o) -> processPosition(p, o, tileStats));
+                    return tileStats;
+                });
+            }
+        }
+        phases.removeIf(List::isEmpty);
+        return phases;
+    }
+
+    private int phase(int tile, int count) {
+        if (count > 1 && count % 2 == 1 && tile == count - 1)
+            return 2;
+        else
+            return tile % 2;
+    }
+
+    private WorldStatistics getResult(Future<WorldStatistics> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+            else if (ex.getCause() instanceof Error)
+                throw (Error) ex.getCause();
+            else
+                throw new IllegalStateException(ex.getCause());
+        }
     }
 
     /**
      * Process the organism at a given position. Reduce its energy according to temperature
      */
-    private void processPosition(int position, Organism organism) {
+    private void processPosition(int position, Organism organism, WorldStatistics stats) {
         adjustEnergy(position, organism);
         world.resetActivityCount(organism);
         organism.activate();
@@ -181,11 +359,12 @@ public class WorldTicker {
     private void adjustEnergy(int position, Organism organism) {
         if (getTemperature(position) < 0)
             organism.reduceEnergy(-getTemperature(position));
-        if (organism.getEnergy() > config.getValue(MAX_ENERGY))
-            organism.reduceEnergy(organism.getEnergy() - config.getValue(MAX_ENERGY));
-        organism.reduceEnergy(config.getValue(ACID_TOXICITY) * world.getElementValue(position, ACID));
-        organism.reduceEnergy(config.getValue(Configuration.Value.BASE_COST));
-        organism.reduceEnergy(organism.size() * config.getValue(Configuration.Value.SIZE_RATE) / 10);
-        organism.reduceEnergy(organism.getAge() * config.getValue(Configuration.Value.AGING_RATE) / 100);
+        Configuration.Snapshot snapshot = config.getSnapshot();
+        if (organism.getEnergy() > snapshot.getValue(MAX_ENERGY))
+            organism.reduceEnergy(organism.getEnergy() - snapshot.getValue(MAX_ENERGY));
+        organism.reduceEnergy(snapshot.getValue(ACID_TOXICITY) * world.getElementValue(position, ACID));
+        organism.reduceEnergy(snapshot.getValue(Configuration.Value.BASE_COST));
+        organism.reduceEnergy(organism.size() * snapshot.getValue(Configuration.Value.SIZE_RATE) / 10);
+        organism.reduceEnergy(organism.getAge() * snapshot.getValue(Configuration.Value.AGING_RATE) / 100);
     }
 }
@@ -0,0 +1,88 @@
+package neurevolve;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+public class BatchRunnerTest {
+
+    private final BatchRunner runner = new BatchRunner();
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWorldRequired() {
+        runner.parseArguments("--ticks", "10");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLimitRequired() {
+        runner.parseArguments("--world", "worlds/_default.xml");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownOption() {
+        runner.parseArguments("--world", "worlds/_default.xml", "--ticks", "10", "--fast");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingValue() {
+        runner.parseArguments("--world", "worlds/_default.xml", "--ticks");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeValue() {
+        runner.parseArguments("--world", "worlds/_default.xml", "--ticks", "-5");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSmallTileSize() {
+        runner.parseArguments("--world", "worlds/_default.xml", "--ticks", "5", "--tile-size", "2");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownStatistics() {
+        runner.parseArguments("--world", "worlds/_default.xml", "--ticks", "5", "--statistics", "most");
+    }
+
+    @Test
+    public void testRun() throws Exception {
+        Path stats = Files.createTempFile("stats", ".csv");
+        try {
+            runner.parseArguments("--world", "worlds/_default.xml", "--width", "40", "--height", "30",
+                    "--ticks", "20", "--interval", "5", "--stats", stats.toString());
+            StringWriter output = new StringWriter();
+            runner.run(new PrintWriter(output));
+            assertThat(runner.getTicks(), is(20L));
+            assertThat(output.toString(), containsString("Ticks: 20"));
+            List<String> lines = Files.readAllLines(stats);
+            assertThat(lines.size(), is(5));
+            assertThat(lines.get(0), startsWith("time,"));
+            assertThat(lines.get(4), startsWith("20,"));
+        } finally {
+            Files.delete(stats);
+        }
+    }
+
+    @Test
+    public void testRunWithStatisticsOff() throws Exception {
+        Path stats = Files.createTempFile("stats", ".csv");
+        try {
+            runner.parseArguments("--world", "worlds/_default.xml", "--width", "40", "--height", "30",
+                    "--ticks", "10", "--interval", "5", "--stats", stats.toString(),
+                    "--statistics", "off");
+            runner.run(new PrintWriter(new StringWriter()));
+            List<String> lines = Files.readAllLines(stats);
+            assertThat(lines.get(0), not(containsString("complexity")));
+            assertThat(lines.get(2).split(",").length, is(lines.get(0).split(",").length));
+        } finally {
+            Files.delete(stats);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package neurevolve.network;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Random;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NetworkCompilerTest {
+
+    private NetworkCompiler compiler;
+    private int[] inputs;
+    private int[] activityCounts;
+
+    @Before
+    public void setup() {
+        compiler = new NetworkCompiler();
+        assumeTrue(compiler.isAvailable());
+        inputs = new int[5];
+        activityCounts = new int[2];
+    }
+
+    @Test
+    public void testCompiledNetworkMatchesInterpreter() {
+        Network interpreted = makeNetwork(new Random(11), 300);
+        Network compiled = makeNetwork(new Random(11), 300);
+        Optional<CompiledNetwork> result = compiler.compile(compiled.getTopology());
+        assertTrue(result.isPresent());
+        assertTrue(compiled.useCompiled(result.get()));
+        assertTrue(compiled.isCompiled());
+        Random random = new Random(23);
+        for (int tick = 0; tick < 30; tick++) {
+            for (int i = 0; i < inputs.length; i++) {
+                inputs[i] = random.nextInt(400) - 200;
+            }
+            interpreted.activate();
+            int[] expectedCounts = activityCounts.clone();
+            Arrays.fill(activityCounts, 0);
+            compiled.activate();
+            assertArrayEquals(expectedCounts, activityCounts);
+            Arrays.fill(activityCounts, 0);
+            assertArrayEquals(interpreted.copyValues(), compiled.copyValues());
+            assertArrayEquals(interpreted.copyRanges(), compiled.copyRanges());
+        }
+    }
+
+    @Test
+    public void testSharedBetweenNetworks() {
+        CompiledNetwork result = compiler.compile(makeNetwork(new Random(5), 20).getTopology()).get();
+        Network other = makeNetwork(new Random(5), 20);
+        assertTrue(other.useCompiled(result));
+        assertFalse(makeNetwork(new Random(5), 21).useCompiled(result));
+    }
+
+    @Test
+    public void testChangeRevertsToInterpreter() {
+        Network network = makeNetwork(new Random(7), 10);
+        network.useCompiled(compiler.compile(network.getTopology()).get());
+        network.addNeuron();
+        assertFalse(network.isCompiled());
+    }
+
+    private Network makeNetwork(Random random, int size) {
+        Network network = new Network(new SigmoidFunction(1000));
+        for (int n = 0; n < size; n++) {
+            network.addNeuron();
+            network.setThreshold(random.nextInt(100) - 50);
+            for (int s = random.nextInt(5); s > 0; s--) {
+                int weight = random.nextInt(40) - 20;
+                if (n > 0 && random.nextBoolean()) {
+                    network.addLink(random.nextInt(n), weight);
+                } else {
+                    int input = random.nextInt(inputs.length);
+                    network.addInput(() -> inputs[input], weight);
+                }
+            }
+            if (random.nextInt(5) == 0)
+                network.addDelay(random.nextInt(4) + 1);
+            if (random.nextInt(3) == 0) {
+                int activity = random.nextInt(activityCounts.length);
+                network.setActivity(() -> activityCounts[activity]++);
+            }
+        }
+        return network;
+    }
+}
@@ -1,5 +1,8 @@
 package neurevolve.network;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertThat;
@@ -125,6 +128,352 @@ public class NetworkTest {
         assertArrayEquals(expected, network.copyValues());
     }
 
+    @Test
+    public void testDelay() {
+        int[] input = {3};
+        network.addNeuron();
+        network.addInput(() -> input[0], weight(1));
+        network.addDelay(2);
+        network.activate();
+        assertThat(network.getValue(0), is(3));
+        input[0] = 5;
+        network.activate();
+        assertThat(network.getValue(0), is(3));
+        network.activate();
+        assertThat(network.getValue(0), is(3));
+        network.activate();
+        assertThat(network.getValue(0), is(5));
+    }
+
+    @Test
+    public void testDelayOnEarlierNeuronIsKept() {
+        int[] input = {3};
+        network.addNeuron();
+        network.addInput(() -> input[0], weight(1));
+        network.addDelay(1);
+        network.addNeuron();
+        network.addLink(0, weight(1));
+        network.activate();
+        input[0] = 7;
+        network.activate();
+        assertArrayEquals(new int[]{3, 3}, network.copyValues());
+        network.activate();
+        assertArrayEquals(new int[]{7, 7}, network.copyValues());
+    }
+
+    @Test
+    public void testCopyRanges() {
+        int[] input = {3};
+        network.addNeuron();
+        network.addInput(() -> input[0], weight(1));
+        network.addNeuron();
+        assertArrayEquals(new int[]{0, 0}, network.copyRanges());
+        network.activate();
+        input[0] = -4;
+        network.activate();
+        assertArrayEquals(new int[]{7, 0}, network.copyRanges());
+        assertThat(network.getTotalActivitySwitches(), is(1));
+    }
+
+    @Test
+    public void testStatisticsOff() {
+        int[] input = {3};
+        network.addNeuron();
+        network.addInput(() -> input[0], weight(1));
+        network.activate(false, Network.Statistics.OFF, Network.DEFAULT_SAMPLE_PERIOD);
+        input[0] = -4;
+        network.activate(false, Network.Statistics.OFF, Network.DEFAULT_SAMPLE_PERIOD);
+        assertThat(network.getValue(0), is(-4));
+        assertArrayEquals(new int[]{0}, network.copyRanges());
+        assertThat(network.getTotalActivitySwitches(), is(0));
+    }
+
+    @Test
+    public void testStatisticsOffKeepsRecordedRanges() {
+        int[] input = {3};
+        network.addNeuron();
+        network.addInput(() -> input[0], weight(1));
+        network.activate();
+        input[0] = -4;
+        network.activate();
+        input[0] = 20;
+        network.activate(false, Network.Statistics.OFF, Network.DEFAULT_SAMPLE_PERIOD);
+        assertArrayEquals(new int[]{7}, network.copyRanges());
+        assertThat(network.getTotalActivitySwitches(), is(1));
+    }
+
+    @Test
+    public void testSampledStatistics() {
+        int[] input = {0};
+        network.addNeuron();
+        network.addInput(() -> input[0], weight(1));
+        network.addDelay(1);
+        for (int i = 0; i < 7; i++) {
+            input[0] = i;
+            network.activate(false, Network.Statistics.SAMPLED, 3);
+        }
+        assertArrayEquals(new int[]{6}, network.copyRanges());
+    }
+
+    @Test
+    public void testMatchesNeurons() {
+        Random random = new Random(17);
+        network = new Network(v -> v / 2);
+        int[] inputs = new int[4];
+        List<Neuron> neurons = new ArrayList<>();
+        for (int n = 0; n < 40; n++) {
+            Neuron neuron = new Neuron(v -> v / 2);
+            network.addNeuron();
+            int threshold = random.nextInt(40) - 20;
+            neuron.setThreshold(threshold);
+            network.setThreshold(threshold);
+            for (int s = random.nextInt(4); s > 0; s--) {
+                int weight = random.nextInt(20) - 10;
+                if (n > 0 && random.nextBoolean()) {
+                    int from = random.nextInt(n);
+                    neuron.addInput(neurons.get(from)::getValue, weight);
+                    network.addLink(from, weight);
+                } else {
+                    int input = random.nextInt(inputs.length);
+                    neuron.addInput(() -> inputs[input], weight);
+                    network.addInput(() -> inputs[input], weight);
+                }
+            }
+            if (random.nextInt(4) == 0) {
+                int delay = random.nextInt(3) + 1;
+                neuron.addDelay(delay);
+                network.addDelay(delay);
+            }
+            neurons.add(neuron);
+        }
+        for (int tick = 0; tick < 20; tick++) {
+            for (int i = 0; i < inputs.length; i++) {
+                inputs[i] = random.nextInt(200) - 100;
+            }
+            neurons.forEach(Neuron::activate);
+            network.activate();
+            assertArrayEquals(neurons.stream().mapToInt(Neuron::getValue).toArray(),
+                    network.copyValues());
+            assertArrayEquals(neurons.stream().mapToInt(Neuron::getValueRange).toArray(),
+                    network.copyRanges());
+        }
+    }
+
+    @Test
+    public void testSharedTopology() {
+        network.addNeuron();
+        network.addInput(() -> 7, weight(2));
+        network.addNeuron();
+        network.addDelay(2);
+        network.addLink(0, weight(3));
+        network.setActivity(mock(Activity.class));
+        Network copy = new Network(n -> n, network.getTopology());
+        copy.setInput(0, () -> 7);
+        Activity activity = mock(Activity.class);
+        copy.setActivity(1, activity);
+        for (int tick = 0; tick < 5; tick++) {
+            network.activate();
+            copy.activate();
+            assertArrayEquals(network.copyValues(), copy.copyValues());
+        }
+        verify(activity, times(5)).perform();
+    }
+
+    @Test
+    public void testChangeSharedTopology() {
+        network.addNeuron();
+        Topology topology = network.getTopology();
+        network.addNeuron();
+        assertThat(topology.size(), is(1));
+        assertThat(network.size(), is(2));
+        assertThat(new Network(n -> n, topology).size(), is(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetActivityOfNeuronWithoutActivity() {
+        network.addNeuron();
+        new Network(n -> n, network.getTopology()).setActivity(0, mock(Activity.class));
+    }
+
+    @Test
+    public void testIncrementalMatchesFull() {
+        Random random = new Random(23);
+        int[] inputs = new int[4];
+        Network full = new Network(v -> v / 2);
+        Network incremental = new Network(v -> v / 2);
+        int[] fullActivities = new int[1];
+        int[] incrementalActivities = new int[1];
+        for (int n = 0; n < 40; n++) {
+            full.addNeuron();
+            incremental.addNeuron();
+            int threshold = random.nextInt(40) - 20;
+            full.setThreshold(threshold);
+            incremental.setThreshold(threshold);
+            for (int s = random.nextInt(4); s > 0; s--) {
+                int weight = weight(random.nextInt(20) - 10);
+                if (n > 0 && random.nextBoolean()) {
+                    int from = random.nextInt(n);
+                    full.addLink(from, weight);
+                    incremental.addLink(from, weight);
+                } else {
+                    int input = random.nextInt(inputs.length);
+                    full.addInput(() -> inputs[input], weight);
+                    incremental.addInput(() -> inputs[input], weight);
+                }
+            }
+            if (random.nextInt(4) == 0) {
+                int delay = random.nextInt(3) + 1;
+                full.addDelay(delay);
+                incremental.addDelay(delay);
+            }
+            if (random.nextInt(3) == 0) {
+                full.setActivity(() -> fullActivities[0]++);
+                incremental.setActivity(() -> incrementalActivities[0]++);
+            }
+        }
+        for (int tick = 0; tick < 50; tick++) {
+            if (random.nextInt(3) == 0)
+                inputs[random.nextInt(inputs.length)] = random.nextInt(200) - 100;
+            full.activate(false);
+            incremental.activate(true);
+            assertArrayEquals(full.copyValues(), incremental.copyValues());
+            assertArrayEquals(full.copyRanges(), incremental.copyRanges());
+            assertThat(incrementalActivities[0], is(fullActivities[0]));
+        }
+    }
+
+    @Test
+    public void testIncrementalAfterChange() {
+        int[] input = {5};
+        network.addNeuron();
+        network.addInput(() -> input[0], weight(1));
+        network.activate(true);
+        network.addInput(() -> input[0], weight(1));
+        network.activate(true);
+        assertThat(network.getValue(0), is(10));
+    }
+
+    @Test
+    public void testEliminateDeadNeurons() {
+        Input dead = mock(Input.class);
+        Activity activity = mock(Activity.class);
+        network.addNeuron();
+        network.addInput(() -> 7, weight(1));
+        network.addNeuron();
+        network.addInput(dead, weight(1));
+        network.addNeuron();
+        network.addLink(0, weight(1));
+        network.setActivity(activity);
+        network.addNeuron();
+        network.addLink(1, weight(1));
+        network.eliminateDeadNeurons();
+        assertThat(network.size(), is(4));
+        assertThat(network.getTopology().size(), is(2));
+        assertThat(network.getTopology().getInputCount(), is(1));
+        network.activate();
+        verify(dead, never()).getValue();
+        verify(activity).perform();
+        assertArrayEquals(new int[]{7, 0, 7, 0}, network.copyValues());
+        assertThat(network.getValue(3), is(0));
+    }
+
+    @Test
+    public void testComplexityOfEliminatedNetwork() {
+        int[] input = {3};
+        Network pruned = new Network(v -> v);
+        for (Network each : new Network[]{network, pruned}) {
+            each.addNeuron();
+            each.addInput(() -> input[0], weight(1));
+            each.addNeuron();
+            each.addInput(() -> -input[0], weight(1));
+            each.addNeuron();
+            each.addLink(0, weight(1));
+            each.setActivity(() -> {
+            });
+        }
+        pruned.eliminateDeadNeurons();
+        network.activate();
+        pruned.activate();
+        input[0] = -4;
+        network.activate();
+        pruned.activate();
+        assertThat(network.getTotalActivitySwitches(), is(3));
+        assertArrayEquals(new int[]{7, 0, 7}, pruned.copyRanges());
+        assertThat(pruned.getTotalActivitySwitches(), is(2));
+    }
+
+    @Test
+    public void testEliminatedMatchesFull() {
+        Random random = new Random(31);
+        Network full = new Network(v -> v / 2);
+        Network pruned = new Network(v -> v / 2);
+        int[] fullActivities = {0};
+        int[] prunedActivities = {0};
+        for (int n = 0; n < 40; n++) {
+            full.addNeuron();
+            pruned.addNeuron();
+            int threshold = random.nextInt(10);
+            full.setThreshold(threshold);
+            pruned.setThreshold(threshold);
+            for (int s = random.nextInt(3); s > 0; s--) {
+                int weight = weight(random.nextInt(20) - 10);
+                if (n > 0 && random.nextBoolean()) {
+                    int from = random.nextInt(n);
+                    full.addLink(from, weight);
+                    pruned.addLink(from, weight);
+                } else {
+                    int value = random.nextInt(100);
+                    full.addInput(() -> value, weight);
+                    pruned.addInput(() -> value, weight);
+                }
+            }
+            if (random.nextInt(4) == 0) {
+                full.addDelay(2);
+                pruned.addDelay(2);
+            }
+            if (random.nextInt(8) == 0) {
+                full.setActivity(() -> fullActivities[0]++);
+                pruned.setActivity(() -> prunedActivities[0]++);
+            }
+        }
+        pruned.eliminateDeadNeurons();
+        assertThat(pruned.size(), is(full.size()));
+        for (int i = 0; i < 5; i++) {
+            full.activate();
+            pruned.activate();
+            int[] fullValues = full.copyValues();
+            int[] prunedValues = pruned.copyValues();
+            for (int n = 0; n < fullValues.length; n++) {
+                if (prunedValues[n] != 0)
+                    assertThat(prunedValues[n], is(fullValues[n]));
+            }
+            assertThat(prunedActivities[0], is(fullActivities[0]));
+        }
+    }
+
+    @Test
+    public void testShareEliminatedTopology() {
+        network.addNeuron();
+        network.addNeuron();
+        network.addInput(() -> 3, weight(1));
+        network.setActivity(mock(Activity.class));
+        network.eliminateDeadNeurons();
+        Network shared = new Network(n -> n, network.getTopology());
+        shared.setInput(0, () -> 3);
+        shared.setActivity(0, mock(Activity.class));
+        shared.activate();
+        assertArrayEquals(new int[]{0, 3}, shared.copyValues());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testChangeAfterElimination() {
+        network.addNeuron();
+        network.addNeuron();
+        network.setActivity(mock(Activity.class));
+        network.eliminateDeadNeurons();
+        network.addNeuron();
+    }
+
     private int weight(int weight) {
         return weight * Neuron.WEIGHT_DIVISOR;
     }
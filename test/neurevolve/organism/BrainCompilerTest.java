@@ -0,0 +1,100 @@
+package neurevolve.organism;
+
+import neurevolve.TestEnvironment;
+import static neurevolve.organism.Code.fromInt;
+import static org.junit.Assert.assertArrayEquals;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BrainCompilerTest {
+
+    private final BrainPlanCache cache = new BrainPlanCache();
+    private final Environment environment = new TestEnvironment() {
+        @Override
+        public boolean isCompilingBrains() {
+            return true;
+        }
+
+        @Override
+        public BrainPlanCache getBrainPlanCache() {
+            return cache;
+        }
+    };
+    private Recipe recipe;
+
+    @Before
+    public void setup() {
+        assumeTrue(BrainCompiler.isAvailable());
+        BrainCompiler.setBirthThreshold(2);
+        recipe = new Recipe(0);
+        recipe.add(Instruction.ADD_NEURON, fromInt(-4));
+        recipe.add(Instruction.ADD_INPUT, fromInt(2), fromInt(7));
+        recipe.add(Instruction.ADD_NEURON, fromInt(3));
+        recipe.add(Instruction.ADD_LINK, fromInt(0), fromInt(-9));
+        recipe.add(Instruction.ADD_DELAY, fromInt(2));
+    }
+
+    @After
+    public void tearDown() {
+        BrainCompiler.setBirthThreshold(BrainCompiler.DEFAULT_BIRTH_THRESHOLD);
+    }
+
+    @Test
+    public void testCommonRecipeIsCompiled() throws InterruptedException {
+        Organism first = new Organism(environment, 100, recipe);
+        assertFalse(first.getBrain().isCompiled());
+        new Organism(environment, 100, recipe);
+        Organism compiled = waitForCompiledOrganism();
+        for (int i = 0; i < 5; i++) {
+            first.activate();
+            compiled.activate();
+            assertArrayEquals(first.copyValues(), compiled.copyValues());
+        }
+    }
+
+    @Test
+    public void testDisabled() throws InterruptedException {
+        Environment interpreting = new TestEnvironment() {
+            @Override
+            public BrainPlanCache getBrainPlanCache() {
+                return cache;
+            }
+        };
+        for (int i = 0; i < 5; i++) {
+            new Organism(interpreting, 100, recipe);
+        }
+        Thread.sleep(100);
+        assertFalse(new Organism(interpreting, 100, recipe).getBrain().isCompiled());
+        assertThat(cache.getCompiledCount(), is(0));
+    }
+
+    @Test
+    public void testCompiledBrainIsEvictedWithPlan() throws InterruptedException {
+        new Organism(environment, 100, recipe);
+        new Organism(environment, 100, recipe);
+        waitForCompiledOrganism();
+        assertThat(cache.getCompiledCount(), is(1));
+        cache.setCapacity(1);
+        Recipe other = new Recipe(0);
+        other.add(Instruction.ADD_NEURON, fromInt(5));
+        new Organism(environment, 100, other);
+        assertThat(cache.getCompiledCount(), is(0));
+    }
+
+    private Organism waitForCompiledOrganism() throws InterruptedException {
+        for (int attempt = 0; attempt < 300; attempt++) {
+            Organism organism = new Organism(environment, 100, recipe);
+            if (organism.getBrain().isCompiled())
+                return organism;
+            Thread.sleep(50);
+        }
+        assertTrue("Brain not compiled", false);
+        return null;
+    }
+}
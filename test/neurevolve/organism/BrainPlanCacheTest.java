@@ -0,0 +1,92 @@
+package neurevolve.organism;
+
+import neurevolve.TestEnvironment;
+import static neurevolve.organism.Code.fromInt;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class BrainPlanCacheTest {
+
+    private final BrainPlanCache cache = new BrainPlanCache();
+    private final Environment environment = new TestEnvironment() {
+        @Override
+        public BrainPlanCache getBrainPlanCache() {
+            return cache;
+        }
+    };
+
+    @Test
+    public void testMissThenHit() {
+        Recipe recipe = recipe(0, 5);
+        new Organism(environment, 100, recipe);
+        assertThat(cache.getMisses(), is(1L));
+        assertThat(cache.size(), is(1));
+        new Organism(environment, 100, recipe);
+        assertThat(cache.getHits(), is(1L));
+        assertThat(cache.getHitRate(), is(0.5));
+    }
+
+    @Test
+    public void testHitForSameContent() {
+        Organism first = new Organism(environment, 100, recipe(0, 5));
+        Organism second = new Organism(environment, 100, recipe(17, 5));
+        assertThat(cache.getHits(), is(1L));
+        assertTrue(first.getBrain().getTopology() == second.getBrain().getTopology());
+    }
+
+    @Test
+    public void testMissForDifferentContent() {
+        new Organism(environment, 100, recipe(0, 5));
+        new Organism(environment, 100, recipe(0, 6));
+        assertThat(cache.getMisses(), is(2L));
+        assertThat(cache.size(), is(2));
+    }
+
+    @Test
+    public void testEviction() {
+        cache.setCapacity(2);
+        new Organism(environment, 100, recipe(0, 1));
+        new Organism(environment, 100, recipe(0, 2));
+        new Organism(environment, 100, recipe(0, 1));
+        new Organism(environment, 100, recipe(0, 3));
+        assertThat(cache.size(), is(2));
+        assertThat(cache.getEvictions(), is(1L));
+        new Organism(environment, 100, recipe(0, 1));
+        assertThat(cache.getHits(), is(2L));
+        new Organism(environment, 100, recipe(0, 2));
+        assertThat(cache.getMisses(), is(4L));
+    }
+
+    @Test
+    public void testCachesAreSeparate() {
+        Environment other = new TestEnvironment() {
+            @Override
+            public BrainPlanCache getBrainPlanCache() {
+                return new BrainPlanCache();
+            }
+        };
+        new Organism(environment, 100, recipe(0, 5));
+        new Organism(other, 100, recipe(0, 5));
+        assertThat(cache.getMisses(), is(1L));
+        assertThat(cache.getHits(), is(0L));
+    }
+
+    @Test
+    public void testNoCache() {
+        Environment uncached = new TestEnvironment();
+        Recipe recipe = recipe(0, 5);
+        Organism first = new Organism(uncached, 100, recipe);
+        Organism second = new Organism(uncached, 100, recipe);
+        assertTrue(first.getBrain().getTopology() == second.getBrain().getTopology());
+        assertThat(cache.size(), is(0));
+    }
+
+    private Recipe recipe(int colour, int threshold) {
+        Recipe recipe = new Recipe(colour);
+        recipe.add(Instruction.ADD_NEURON, fromInt(threshold));
+        recipe.add(Instruction.ADD_INPUT, fromInt(3), fromInt(threshold));
+        return recipe;
+    }
+}
@@ -49,4 +49,24 @@ public class InstructionTest {
         organism.getBrain().activate();
         assertThat(organism.getBrain().getValue(0), is(250));
     }
+
+    @Test
+    public void testDecodeBoundaries() {
+        assertThat(Instruction.decode(fromInt(-100)), is(Instruction.JUNK));
+        assertThat(Instruction.decode(fromInt(0)), is(Instruction.ADD_NEURON));
+        assertThat(Instruction.decode(fromInt(9)), is(Instruction.ADD_NEURON));
+        assertThat(Instruction.decode(fromInt(10)), is(Instruction.ADD_LINK));
+        assertThat(Instruction.decode(fromInt(69)), is(Instruction.ADD_INPUT));
+        assertThat(Instruction.decode(fromInt(80)), is(Instruction.SET_ACTIVITY));
+        assertThat(Instruction.decode(fromInt(85)), is(Instruction.JUNK));
+        assertThat(Instruction.decode(fromInt(127)), is(Instruction.JUNK));
+    }
+
+    @Test
+    public void testDecodeCodeOfInstruction() {
+        for (Instruction instruction : Instruction.values()) {
+            if (instruction != Instruction.JUNK)
+                assertThat(Instruction.decode(instruction.getCode()), is(instruction));
+        }
+    }
 }
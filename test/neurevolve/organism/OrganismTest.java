@@ -2,6 +2,7 @@ package neurevolve.organism;
 
 import neurevolve.TestEnvironment;
 import neurevolve.TestReplicator;
+import static neurevolve.organism.Code.fromInt;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotSame;
@@ -88,4 +89,95 @@ public class OrganismTest {
         organism.activate();
         assertThat(organism.getAge(), is(1));
     }
+
+    @Test
+    public void testDuplicateInputsUseSensorCache() {
+        int[] queries = {0};
+        Environment counting = new TestEnvironment() {
+            @Override
+            public int getInput(Organism organism, int input) {
+                queries[0]++;
+                return super.getInput(organism, input);
+            }
+        };
+        Recipe recipe = new Recipe(0);
+        recipe.add(Instruction.ADD_NEURON, fromInt(0));
+        recipe.add(Instruction.ADD_INPUT, fromInt(3), fromInt(5));
+        recipe.add(Instruction.ADD_NEURON, fromInt(0));
+        recipe.add(Instruction.ADD_INPUT, fromInt(3), fromInt(10));
+        organism = new Organism(counting, 100, recipe);
+        organism.activate();
+        assertThat(queries[0], is(1));
+        assertThat(organism.getSensorHits(), is(1));
+        assertThat(organism.getSensorMisses(), is(1));
+        assertThat(organism.copyValues()[1], is(60));
+        organism.activate();
+        assertThat(queries[0], is(2));
+    }
+
+    @Test
+    public void testActivityInvalidatesSensorCache() {
+        int[] queries = {0};
+        Environment counting = new TestEnvironment() {
+            @Override
+            public int getInput(Organism organism, int input) {
+                queries[0]++;
+                return super.getInput(organism, input);
+            }
+        };
+        Recipe recipe = new Recipe(0);
+        recipe.add(Instruction.ADD_NEURON, fromInt(0));
+        recipe.add(Instruction.ADD_INPUT, fromInt(3), fromInt(5));
+        recipe.add(Instruction.SET_ACTIVITY, fromInt(1));
+        recipe.add(Instruction.ADD_NEURON, fromInt(0));
+        recipe.add(Instruction.ADD_INPUT, fromInt(3), fromInt(10));
+        organism = new Organism(counting, 100, recipe);
+        organism.activate();
+        assertThat(queries[0], is(2));
+        assertThat(organism.getSensorHits(), is(0));
+    }
+
+    @Test
+    public void testEliminateDeadNeurons() {
+        int[] queries = {0};
+        Environment counting = new TestEnvironment() {
+            @Override
+            public int getInput(Organism organism, int input) {
+                queries[0]++;
+                return super.getInput(organism, input);
+            }
+
+            @Override
+            public boolean isEliminatingDeadNeurons() {
+                return true;
+            }
+        };
+        Recipe recipe = new Recipe(0);
+        recipe.add(Instruction.ADD_NEURON, fromInt(0));
+        recipe.add(Instruction.ADD_INPUT, fromInt(3), fromInt(5));
+        recipe.add(Instruction.ADD_NEURON, fromInt(0));
+        recipe.add(Instruction.ADD_INPUT, fromInt(4), fromInt(10));
+        recipe.add(Instruction.SET_ACTIVITY, fromInt(1));
+        organism = new Organism(counting, 100, recipe);
+        organism.activate();
+        assertThat(queries[0], is(1));
+        assertThat(organism.size(), is(2));
+        assertThat(organism.copyValues()[0], is(0));
+        assertThat(organism.getBrain().getTopology().size(), is(1));
+        assertThat(new Organism(environment, 100, recipe).getBrain().getTopology().size(), is(2));
+    }
+
+    @Test
+    public void testThinkDefersActivities() {
+        TestEnvironment recording = new TestEnvironment();
+        Recipe recipe = new Recipe(0);
+        recipe.add(Instruction.ADD_NEURON, fromInt(-1));
+        recipe.add(Instruction.SET_ACTIVITY, fromInt(4));
+        organism = new Organism(recording, 100, recipe);
+        organism.think();
+        assertThat(organism.getAge(), is(1));
+        assertFalse(recording.isPerformed(4));
+        organism.act();
+        assertTrue(recording.isPerformed(4));
+    }
 }
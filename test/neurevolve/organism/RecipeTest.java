@@ -4,9 +4,11 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import neurevolve.TestEnvironment;
+import neurevolve.TestReplicator;
 import neurevolve.network.Neuron;
 import static neurevolve.organism.Code.fromInt;
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import org.junit.Before;
@@ -173,6 +175,176 @@ public class RecipeTest {
         assertThat(recipe.distanceTo(other), is(10));
     }
 
+    @Test
+    public void testDistanceWithinLimit() {
+        Recipe other = new Recipe(0);
+        recipe.add(fromInt(65));
+        recipe.add(fromInt(-4));
+        recipe.add(fromInt(17));
+        other.add(fromInt(65));
+        other.add(fromInt(17));
+        assertThat(recipe.distanceTo(other, 4), is(4));
+        assertThat(recipe.distanceTo(other, 100), is(4));
+    }
+
+    @Test
+    public void testDistanceBeyondLimit() {
+        Recipe other = new Recipe(0);
+        recipe.add(fromInt(65));
+        recipe.add(fromInt(-4));
+        recipe.add(fromInt(17));
+        other.add(fromInt(65));
+        other.add(fromInt(17));
+        assertThat(recipe.distanceTo(other, 3), is(4));
+        assertThat(recipe.distanceTo(other, 0), is(1));
+    }
+
+    @Test
+    public void testDistanceWithZeroCostInsertions() {
+        Recipe other = new Recipe(0);
+        recipe.add(fromInt(7));
+        recipe.add(fromInt(9));
+        for (int i = 0; i < 20; i++) {
+            other.add(fromInt(0));
+        }
+        other.add(fromInt(7));
+        other.add(fromInt(9));
+        assertThat(recipe.distanceTo(other, 0), is(0));
+    }
+
+    @Test
+    public void testBoundedDistanceMatchesDistance() {
+        Random random = new Random(11);
+        for (int test = 0; test < 100; test++) {
+            Recipe first = new Recipe(0);
+            Recipe second = new Recipe(0);
+            random.ints(random.nextInt(30), -20, 20).forEach(v -> first.add(fromInt(v)));
+            random.ints(random.nextInt(30), -20, 20).forEach(v -> second.add(fromInt(v)));
+            int distance = first.distanceTo(second);
+            assertThat(first.distanceTo(second, distance), is(distance));
+            assertThat(first.distanceTo(second, distance - 1), is(distance));
+        }
+    }
+
+    @Test
+    public void testFingerprintOfEqualRecipes() {
+        Recipe other = new Recipe(5);
+        recipe.add(Instruction.ADD_NEURON, fromInt(5));
+        other.add(Instruction.ADD_NEURON, fromInt(5));
+        assertThat(recipe.getFingerprint(), is(other.getFingerprint()));
+        byte[] copy = recipe.toByteArray();
+        assertThat(new Recipe(0, copy, copy.length).getFingerprint(), is(recipe.getFingerprint()));
+    }
+
+    @Test
+    public void testFingerprintChangesWithContent() {
+        long empty = recipe.getFingerprint();
+        recipe.add(fromInt(0));
+        assertFalse(recipe.getFingerprint() == empty);
+        Recipe other = new Recipe(0);
+        other.add(fromInt(1));
+        assertFalse(recipe.getFingerprint() == other.getFingerprint());
+    }
+
+    @Test
+    public void testMatches() {
+        Recipe other = new Recipe(0);
+        recipe.add(Instruction.ADD_LINK, fromInt(1), fromInt(2));
+        other.add(Instruction.ADD_LINK, fromInt(1), fromInt(2));
+        assertTrue(recipe.matches(other));
+        other.add(fromInt(3));
+        assertFalse(recipe.matches(other));
+        Recipe coloured = new Recipe(1);
+        coloured.add(Instruction.ADD_LINK, fromInt(1), fromInt(2));
+        assertFalse(recipe.matches(coloured));
+    }
+
+    @Test
+    public void testReplicateCopy() {
+        recipe.add(Instruction.ADD_NEURON, fromInt(5));
+        Recipe copy = recipe.replicate(new TestReplicator());
+        assertTrue(copy != recipe);
+        assertTrue(copy.matches(recipe));
+        assertFalse(recipe.isShared());
+        recipe.add(fromInt(1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSharedRecipeCannotChange() {
+        recipe.add(Instruction.ADD_NEURON, fromInt(5));
+        Replicator sharer = new Replicator() {
+            @Override
+            public Recipe copyInstructions(byte[] instructions, int size, int colour) {
+                throw new AssertionError();
+            }
+
+            @Override
+            public Recipe replicate(Recipe recipe) {
+                return recipe;
+            }
+        };
+        assertTrue(recipe.replicate(sharer) == recipe);
+        assertTrue(recipe.isShared());
+        recipe.add(fromInt(1));
+    }
+
+    @Test
+    public void testOrganismsShareBrainTopology() {
+        recipe.add(Instruction.ADD_NEURON, fromInt(-3));
+        recipe.add(Instruction.ADD_INPUT, fromInt(4), fromInt(Neuron.WEIGHT_DIVISOR));
+        recipe.add(Instruction.ADD_INPUT, fromInt(2), fromInt(Neuron.WEIGHT_DIVISOR));
+        recipe.add(Instruction.ADD_NEURON, fromInt(0));
+        recipe.add(Instruction.ADD_DELAY, fromInt(2));
+        recipe.add(Instruction.ADD_LINK, fromInt(0), fromInt(2 * Neuron.WEIGHT_DIVISOR));
+        recipe.add(Instruction.SET_ACTIVITY, fromInt(3));
+        Organism first = new Organism(environment, 100, recipe);
+        Organism second = new Organism(environment, 100, recipe);
+        assertTrue(first.getBrain().getTopology() == second.getBrain().getTopology());
+        for (int tick = 0; tick < 4; tick++) {
+            first.activate();
+            second.activate();
+            assertThat(second.copyValues(), is(first.copyValues()));
+            assertThat(second.getSensorMisses(), is(first.getSensorMisses()));
+        }
+    }
+
+    @Test
+    public void testCursorReadsValues() {
+        recipe.add(Instruction.ADD_NEURON, fromInt(5));
+        recipe.add(Instruction.ADD_LINK, fromInt(1), fromInt(-3));
+        Recipe.Cursor cursor = recipe.cursor();
+        assertTrue(cursor.next());
+        assertThat(cursor.getInstruction(), is(Instruction.ADD_NEURON));
+        assertTrue(cursor.isComplete());
+        assertThat(cursor.getValue(0), is(fromInt(5)));
+        assertTrue(cursor.next());
+        assertThat(cursor.getInstruction(), is(Instruction.ADD_LINK));
+        assertThat(cursor.getValue(0), is(fromInt(1)));
+        assertThat(cursor.getValue(1), is(fromInt(-3)));
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    public void testCursorIncompleteInstruction() {
+        recipe.add(Instruction.ADD_LINK.getCode());
+        recipe.add(fromInt(1));
+        Recipe.Cursor cursor = recipe.cursor();
+        assertTrue(cursor.next());
+        assertThat(cursor.getInstruction(), is(Instruction.ADD_LINK));
+        assertFalse(cursor.isComplete());
+        assertTrue(cursor.next());
+        assertThat(cursor.getCode(), is(fromInt(1)));
+        assertFalse(cursor.next());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testCursorValueOutOfRange() {
+        recipe.add(Instruction.ADD_NEURON, fromInt(5));
+        Recipe.Cursor cursor = recipe.cursor();
+        cursor.next();
+        cursor.getValue(1);
+    }
+
     private void getGenes() {
         genes.clear();
         recipe.forEachInstruction((i, v) -> {
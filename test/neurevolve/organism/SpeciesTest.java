@@ -1,7 +1,9 @@
 package neurevolve.organism;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
@@ -72,6 +74,17 @@ public class SpeciesTest {
         assertThat(list.get(1).getSize(), is(1));
     }
 
+    @Test
+    public void testAddToSpeciesIndex() {
+        Map<Long, List<Species>> index = new HashMap<>();
+        Species first = Species.addToSpecies(makeOrganism(describer, 7, 0, 0), index);
+        assertThat(index.size(), is(1));
+        assertTrue(Species.addToSpecies(makeOrganism(describer, 7, 0, 0), index) == first);
+        assertThat(first.getSize(), is(2));
+        Species.addToSpecies(makeOrganism(describer, 8, 0, 0), index);
+        assertThat(index.size(), is(2));
+    }
+
     private Organism makeOrganism(RecipeDescriber describer, int colour, int age, int complexity) {
         Organism organism = mock(Organism.class);
         when(organism.getColour()).thenReturn(colour);
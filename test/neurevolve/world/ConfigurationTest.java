@@ -1,11 +1,16 @@
 package neurevolve.world;
 
+import neurevolve.network.Network;
+import neurevolve.organism.BrainCompiler;
 import neurevolve.world.Configuration.Value;
 import static neurevolve.world.Configuration.Value.HALF_LIFE;
 import static neurevolve.world.GroundElement.ACID;
 import static neurevolve.world.GroundElement.WALL;
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -37,4 +42,65 @@ public class ConfigurationTest {
         assertThat(config.getHalfLife(WALL), is(HALF_LIFE.getDefault()));
     }
 
+    @Test
+    public void testSnapshotResolvesDefaults() {
+        config.setValue(Value.ACTIVITY_COST, 7);
+        config.setHalfLife(ACID, 8);
+        Configuration.Snapshot snapshot = config.getSnapshot();
+        assertThat(snapshot.getValue(Value.ACTIVITY_COST), is(7));
+        assertThat(snapshot.getActivityCost(WorldActivity.DIVIDE), is(7));
+        assertThat(snapshot.getHalfLife(ACID), is(8));
+        assertThat(snapshot.getValue(Value.MAX_ENERGY), is(config.getValue(Value.MAX_ENERGY)));
+    }
+
+    @Test
+    public void testSnapshotIsImmutable() {
+        Configuration.Snapshot snapshot = config.getSnapshot();
+        int cost = snapshot.getValue(Value.ACTIVITY_COST);
+        config.setValue(Value.ACTIVITY_COST, cost + 1);
+        assertThat(snapshot.getValue(Value.ACTIVITY_COST), is(cost));
+        assertThat(config.getSnapshot().getValue(Value.ACTIVITY_COST), is(cost + 1));
+    }
+
+    @Test
+    public void testChangesDuringTickArePublishedAtEnd() {
+        config.startTick();
+        config.setValue(Value.BASE_COST, 7);
+        assertThat(config.getValue(Value.BASE_COST), is(7));
+        assertThat(config.getSnapshot().getValue(Value.BASE_COST), is(Value.BASE_COST.getDefault()));
+        config.endTick();
+        assertThat(config.getSnapshot().getValue(Value.BASE_COST), is(7));
+    }
+
+    @Test
+    public void testIncrementalIsPublished() {
+        assertFalse(config.getSnapshot().isIncremental());
+        config.setIncremental(true);
+        assertTrue(config.isIncremental());
+        assertTrue(config.getSnapshot().isIncremental());
+    }
+
+    @Test
+    public void testStatisticsArePublished() {
+        assertThat(config.getSnapshot().getStatistics(), is(Network.Statistics.FULL));
+        config.setStatistics(Network.Statistics.SAMPLED);
+        config.setSamplePeriod(3);
+        assertThat(config.getStatistics(), is(Network.Statistics.SAMPLED));
+        assertThat(config.getSnapshot().getStatistics(), is(Network.Statistics.SAMPLED));
+        assertThat(config.getSnapshot().getSamplePeriod(), is(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalSamplePeriod() {
+        config.setSamplePeriod(0);
+    }
+
+    @Test
+    public void testCompileBrainsIsPublished() {
+        assumeTrue(BrainCompiler.isAvailable());
+        assertFalse(config.getSnapshot().isCompilingBrains());
+        config.setCompileBrains(true);
+        assertTrue(config.isCompilingBrains());
+        assertTrue(config.getSnapshot().isCompilingBrains());
+    }
 }
@@ -0,0 +1,58 @@
+package neurevolve.world;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class FreePositionsTest {
+
+    private final FreePositions free = new FreePositions(10);
+    private final Random random = new Random(7);
+
+    @Test
+    public void testAllFreeInitially() {
+        assertThat(free.size(), is(10));
+        assertTrue(free.isFree(0));
+        assertTrue(free.isFree(9));
+    }
+
+    @Test
+    public void testSetFree() {
+        free.setFree(4, false);
+        assertFalse(free.isFree(4));
+        assertThat(free.size(), is(9));
+        free.setFree(4, false);
+        assertThat(free.size(), is(9));
+        free.setFree(4, true);
+        assertTrue(free.isFree(4));
+        assertThat(free.size(), is(10));
+    }
+
+    @Test
+    public void testRandomOnlySelectsFreePositions() {
+        for (int p = 0; p < 10; p++) {
+            if (p != 2 && p != 7)
+                free.setFree(p, false);
+        }
+        Set<Integer> selected = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            selected.add(free.getRandom(random).getAsInt());
+        }
+        assertThat(selected.size(), is(2));
+        assertTrue(selected.contains(2));
+        assertTrue(selected.contains(7));
+    }
+
+    @Test
+    public void testNoRandomPositionWhenFull() {
+        for (int p = 0; p < 10; p++) {
+            free.setFree(p, false);
+        }
+        assertFalse(free.getRandom(random).isPresent());
+    }
+}
@@ -0,0 +1,117 @@
+package neurevolve.world;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import neurevolve.TestConfiguration;
+import static neurevolve.world.GroundElement.BODY;
+import static neurevolve.world.GroundElement.RADIATION;
+import static neurevolve.world.GroundElement.RESOURCES;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class GroundTest {
+
+    private static final IntConsumer IGNORE = p -> {
+    };
+
+    private final Ground ground = new Ground(10000);
+    private final Random random = new Random(5);
+
+    @Test
+    public void testDecayWithHalfLifeOfOneReducesEveryPosition() {
+        IntStream.range(0, 100).forEach(p -> ground.addElementValue(p * 37, RADIATION, 2));
+        ground.decay(RADIATION, 1, random, IGNORE);
+        assertThat(total(RADIATION), is(100));
+        ground.decay(RADIATION, 1, random, IGNORE);
+        assertThat(total(RADIATION), is(0));
+    }
+
+    @Test
+    public void testDecayOnlyAffectsNonZeroPositions() {
+        IntStream.range(0, 1000).forEach(p -> ground.addElementValue(p * 10, BODY, 1));
+        ground.decay(BODY, 4, random, IGNORE);
+        int remaining = total(BODY);
+        assertTrue(remaining > 700 && remaining < 800);
+        IntStream.range(0, 10000).filter(p -> p % 10 != 0)
+                .forEach(p -> assertThat(ground.getElementValue(p, BODY), is(0)));
+    }
+
+    @Test
+    public void testDecayRate() {
+        IntStream.range(0, 10000).forEach(p -> ground.addElementValue(p, RADIATION, 3));
+        for (int i = 0; i < 10; i++) {
+            ground.decay(RADIATION, 20, random, IGNORE);
+        }
+        int reduced = 30000 - total(RADIATION);
+        assertTrue(reduced > 4700 && reduced < 5300);
+    }
+
+    @Test
+    public void testDecayOfResources() {
+        IntStream.range(0, 10000).forEach(p -> ground.addElementValue(p, RESOURCES, 10));
+        ground.decay(RESOURCES, 10, random, IGNORE);
+        int reduced = 100000 - total(RESOURCES);
+        assertTrue(reduced > 900 && reduced < 1100);
+    }
+
+    @Test
+    public void testCopyDecaysNonZeroPositions() {
+        ground.addElementValue(17, BODY, 1);
+        Ground copy = ground.copy();
+        copy.decay(BODY, 1, random, IGNORE);
+        assertThat(copy.getElementValue(17, BODY), is(0));
+        assertThat(ground.getElementValue(17, BODY), is(1));
+    }
+
+    @Test
+    public void testConcurrentReadsOfGrowingResources() throws InterruptedException {
+        Configuration config = new TestConfiguration();
+        config.setValue(Configuration.Value.MIN_TEMP, 150);
+        config.setValue(Configuration.Value.MAX_TEMP, 150);
+        Space space = new Space(100, 50);
+        ResourceGrowth growth = new ResourceGrowth(space, config);
+        Ground growing = new Ground(space.size(), growth);
+        Ground reference = new Ground(space.size(), growth);
+        AtomicInteger mismatches = new AtomicInteger();
+        for (int time = 1; time <= 1000; time++) {
+            growth.grow(time, 0);
+            int[] expected = IntStream.range(0, space.size())
+                    .map(p -> reference.getElementValue(p, RESOURCES)).toArray();
+            CountDownLatch start = new CountDownLatch(1);
+            Runnable reader = () -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int p = 0; p < expected.length; p++) {
+                    if (growing.getElementValue(p, RESOURCES) != expected[p])
+                        mismatches.incrementAndGet();
+                }
+            };
+            Thread first = new Thread(reader);
+            Thread second = new Thread(reader);
+            first.start();
+            second.start();
+            start.countDown();
+            first.join();
+            second.join();
+            IntStream.range(0, space.size()).forEach(p -> {
+                growing.substractElementValue(p, RESOURCES, 1);
+                reference.substractElementValue(p, RESOURCES, 1);
+            });
+        }
+        assertThat(mismatches.get(), is(0));
+        IntStream.range(0, space.size()).forEach(p
+                -> assertThat(growing.getTotalValue(p), is(reference.getTotalValue(p))));
+    }
+
+    private int total(GroundElement element) {
+        return IntStream.range(0, 10000).map(p -> ground.getElementValue(p, element)).sum();
+    }
+}
@@ -0,0 +1,94 @@
+package neurevolve.world;
+
+import java.util.Random;
+import neurevolve.organism.Recipe;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MutatorTest {
+
+    private byte[] instructions;
+
+    @Before
+    public void setup() {
+        instructions = new byte[200];
+        new Random(17).nextBytes(instructions);
+    }
+
+    @Test
+    public void testCopyWithoutMutation() {
+        Recipe copy = new Mutator(0).copyInstructions(instructions, instructions.length, 73);
+        assertThat(copy.getColour(), is(73));
+        assertTrue(copy.matches(recipe(73)));
+    }
+
+    @Test
+    public void testCopyEmptyRecipe() {
+        Recipe copy = new Mutator(300).copyInstructions(new byte[0], 0, 5);
+        assertThat(copy.size(), is(0));
+        assertThat(copy.getColour(), is(5));
+    }
+
+    @Test
+    public void testMaximumRateMutates() {
+        Mutator mutator = new Mutator(300);
+        int changed = 0;
+        for (int i = 0; i < 20; i++) {
+            Recipe copy = mutator.copyInstructions(instructions, instructions.length, 0);
+            if (!copy.matches(recipe(0)))
+                changed++;
+        }
+        assertTrue(changed > 10);
+    }
+
+    @Test
+    public void testMutationChangesColour() {
+        Mutator mutator = new Mutator(300);
+        for (int i = 0; i < 20; i++) {
+            Recipe copy = mutator.copyInstructions(instructions, instructions.length, 0);
+            if (copy.distanceTo(recipe(0)) > 0)
+                assertThat(copy.getColour(), is(not(0)));
+        }
+    }
+
+    @Test
+    public void testUnmutatedRecipeIsShared() {
+        Recipe parent = recipe(73);
+        Recipe child = parent.replicate(new Mutator(0));
+        assertThat(child, sameInstance(parent));
+        assertTrue(parent.isShared());
+    }
+
+    @Test
+    public void testMutatedRecipeIsCopied() {
+        Mutator mutator = new Mutator(300);
+        for (int i = 0; i < 20; i++) {
+            Recipe parent = recipe(0);
+            Recipe child = parent.replicate(mutator);
+            if (child != parent) {
+                assertFalse(parent.isShared());
+                assertFalse(child.matches(parent) && child.getColour() == 0);
+            }
+        }
+    }
+
+    @Test
+    public void testMutatorsAreSharedPerRate() {
+        assertThat(Mutator.forRate(20), sameInstance(Mutator.forRate(20)));
+        assertThat(Mutator.forRate(500), sameInstance(Mutator.forRate(300)));
+    }
+
+    private Recipe recipe(int colour) {
+        Recipe recipe = new Recipe(colour);
+        for (byte value : instructions) {
+            recipe.add(value);
+        }
+        return recipe;
+    }
+}
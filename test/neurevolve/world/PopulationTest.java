@@ -1,5 +1,10 @@
 package neurevolve.world;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import neurevolve.TestConfiguration;
 import neurevolve.TestEnvironment;
 import neurevolve.organism.Organism;
@@ -118,4 +123,136 @@ public class PopulationTest {
         population.resetActivityCount(organism);
         assertThat(population.getActivityCount(organism, DIVIDE), is(0));
     }
+
+    @Test
+    public void testSlotReused() {
+        Organism other = new Organism(new TestEnvironment(), 100);
+        population.addOrganism(organism, position, EAST);
+        population.incrementActivityCount(organism, DIVIDE);
+        population.removeOrganism(organism);
+        population.addOrganism(other, space.position(1, 1), NORTH);
+        assertThat(other.getSlot(), is(organism.getSlot()));
+        assertThat(population.getPosition(other), is(space.position(1, 1)));
+        assertThat(population.getDirection(other), is(NORTH));
+        assertThat(population.getActivityCount(other, DIVIDE), is(0));
+    }
+
+    @Test
+    public void testManyOrganisms() {
+        for (int i = 0; i < space.size(); i++) {
+            population.addOrganism(new Organism(new TestEnvironment(), 100), i, i % 4);
+        }
+        assertThat(population.size(), is(space.size()));
+        for (int i = 0; i < space.size(); i++) {
+            assertThat(population.getPosition(population.getOrganism(i)), is(i));
+            assertThat(population.getDirection(population.getOrganism(i)), is(i % 4));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRemovedOrganismHasNoPosition() {
+        population.addOrganism(organism, position, EAST);
+        population.removeOrganism(organism);
+        population.getPosition(organism);
+    }
+
+    @Test
+    public void testProcessGenerationSkipsNewOrganisms() {
+        population.addOrganism(organism, position, EAST);
+        List<Organism> processed = new ArrayList<>();
+        population.processGeneration((p, o) -> {
+            processed.add(o);
+            population.addOrganism(new Organism(new TestEnvironment(), 100), space.position(9, 9), EAST);
+        });
+        assertThat(processed.size(), is(1));
+        processed.clear();
+        population.processGeneration((p, o) -> processed.add(o));
+        assertThat(processed.size(), is(2));
+    }
+
+    @Test
+    public void testProcessGenerationProcessesMovedOrganismOnce() {
+        population.addOrganism(organism, position, EAST);
+        List<Integer> positions = new ArrayList<>();
+        population.processGeneration((p, o) -> {
+            positions.add(p);
+            population.moveOrganism(o, 0);
+        });
+        assertThat(positions.size(), is(1));
+        assertThat(positions.get(0), is(position));
+    }
+
+    @Test
+    public void testNextOccupied() {
+        assertThat(population.nextOccupied(0), is(-1));
+        population.addOrganism(organism, position, EAST);
+        Organism other = new Organism(new TestEnvironment(), 100);
+        population.addOrganism(other, 3, EAST);
+        assertThat(population.nextOccupied(0), is(3));
+        assertThat(population.nextOccupied(3), is(3));
+        assertThat(population.nextOccupied(4), is(position));
+        assertThat(population.nextOccupied(position + 1), is(-1));
+        assertThat(population.nextOccupied(4, position), is(-1));
+        assertThat(population.nextOccupied(4, position + 1), is(position));
+    }
+
+    @Test
+    public void testNextOccupiedAfterMoveAndRemove() {
+        population.addOrganism(organism, position, EAST);
+        population.moveOrganism(organism, 0);
+        assertThat(population.nextOccupied(0), is(position + 1));
+        population.removeOrganism(organism);
+        assertThat(population.nextOccupied(0), is(-1));
+    }
+
+    @Test
+    public void testNextOccupiedAcrossWords() {
+        Space large = new Space(100, 100);
+        population = new Population(large, new TestConfiguration());
+        population.addOrganism(organism, 9999, EAST);
+        assertThat(population.nextOccupied(0), is(9999));
+        assertThat(population.nextOccupied(64, 9999), is(-1));
+    }
+
+    @Test
+    public void testConcurrentChangesInSeparateRows() throws Exception {
+        space = new Space(64, 8);
+        population = new Population(space, new TestConfiguration());
+        population.reserveSlots(space.size());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> rows = new ArrayList<>();
+            for (int row = 0; row < 8; row += 2) {
+                int y = row;
+                rows.add(executor.submit(() -> churnRow(y)));
+            }
+            for (Future<?> row : rows) {
+                row.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(population.size(), is(4 * 32));
+        assertThat(population.getOrganisms().size(), is(4 * 32));
+        for (int p = population.nextOccupied(0); p >= 0; p = population.nextOccupied(p + 1)) {
+            Organism occupant = population.getOrganism(p);
+            assertThat(population.getPosition(occupant), is(p));
+        }
+    }
+
+    private void churnRow(int y) {
+        TestEnvironment environment = new TestEnvironment();
+        for (int round = 0; round < 200; round++) {
+            for (int x = 0; x < 64; x++) {
+                population.addOrganism(new Organism(environment, 100), space.position(x, y), EAST);
+            }
+            for (int x = round % 2; x < 64; x += 2) {
+                population.removeOrganism(population.getOrganism(space.position(x, y)));
+            }
+            for (int x = 1 - round % 2; x < 64; x += 2) {
+                if (round < 199)
+                    population.removeOrganism(population.getOrganism(space.position(x, y)));
+            }
+        }
+    }
 }
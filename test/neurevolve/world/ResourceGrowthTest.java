@@ -0,0 +1,85 @@
+package neurevolve.world;
+
+import java.util.Random;
+import neurevolve.TestConfiguration;
+import static neurevolve.world.GroundElement.ELEVATION;
+import static neurevolve.world.GroundElement.RESOURCES;
+import static neurevolve.world.GroundElement.WALL;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ResourceGrowthTest {
+
+    private Configuration config;
+    private Space space;
+    private World world;
+
+    @Before
+    public void setup() {
+        config = new TestConfiguration();
+        config.setValue(Configuration.Value.MIN_TEMP, -80);
+        config.setValue(Configuration.Value.MAX_TEMP, 180);
+        space = new Space(20, 15);
+        world = new World(n -> n, space, config);
+    }
+
+    @Test
+    public void testResourcesForTemperature() {
+        assertThat(ResourceGrowth.getResourcesForTemperature(0, 100), is(1));
+        assertThat(ResourceGrowth.getResourcesForTemperature(0, 101), is(0));
+        assertThat(ResourceGrowth.getResourcesForTemperature(50, 150), is(1));
+        assertThat(ResourceGrowth.getResourcesForTemperature(250, 150), is(3));
+        assertThat(ResourceGrowth.getResourcesForTemperature(250, 151), is(2));
+        assertThat(ResourceGrowth.getResourcesForTemperature(-50, 300), is(1));
+        assertThat(ResourceGrowth.getResourcesForTemperature(-50, 301), is(0));
+    }
+
+    @Test
+    public void testLazyGrowthMatchesGrowingEveryPosition() {
+        Random random = new Random(11);
+        int[] expected = new int[space.size()];
+        for (int p = 0; p < space.size(); p++) {
+            world.addElementValue(p, ELEVATION, random.nextInt(60));
+        }
+        for (int time = 1; time <= 2000; time++) {
+            int seasonalTemp = random.nextInt(41) - 20;
+            for (int p = 0; p < space.size(); p++) {
+                int grown = ResourceGrowth.getResourcesForTemperature(
+                        world.getTemperature(p) + seasonalTemp, time);
+                if (world.getElementValue(p, WALL) == 0)
+                    expected[p] = Math.min(RESOURCES.getMaximum(), expected[p] + grown);
+            }
+            world.growResources(time, seasonalTemp);
+            for (int i = 0; i < 5; i++) {
+                int position = random.nextInt(space.size());
+                switch (random.nextInt(6)) {
+                    case 0:
+                        world.addElementValue(position, ELEVATION, random.nextInt(10));
+                        break;
+                    case 1:
+                        if (random.nextInt(20) == 0) {
+                            world.addElementValue(position, WALL, 1);
+                            expected[position] = 0;
+                        } else {
+                            world.decrementElementValue(position, WALL);
+                        }
+                        break;
+                    default:
+                        world.decrementElementValue(position, RESOURCES);
+                        expected[position] = Math.max(0, expected[position] - 1);
+                        assertThat(world.getElementValue(position, RESOURCES), is(expected[position]));
+                }
+            }
+            if (time % 700 == 0)
+                config.setValue(Configuration.Value.MIN_TEMP, config.getValue(Configuration.Value.MIN_TEMP) + 40);
+            if (time % 100 == 0) {
+                Ground copy = world.copyGround();
+                for (int p = 0; p < space.size(); p++) {
+                    assertThat(RESOURCES.get(copy.getTotalValue(p)), is(expected[p]));
+                }
+            }
+        }
+    }
+}
@@ -55,4 +55,63 @@ public class SpaceTest {
         assertThat(space.move(space.position(0, 0), NORTH), is(space.position(0, 9)));
     }
 
+    @Test
+    public void testPowerOfTwoWidthWraps() {
+        space = new Space(16, 8);
+        assertThat(space.move(space.position(15, 7), SOUTH), is(space.position(15, 0)));
+        assertThat(space.move(space.position(0, 3), WEST), is(space.position(15, 3)));
+        assertThat(space.move(space.position(15, 3), EAST), is(space.position(0, 3)));
+        assertThat(space.move(space.position(4, 0), NORTH), is(space.position(4, 7)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalMove() {
+        space.move(space.size(), EAST);
+    }
+
+    @Test
+    public void testOffset() {
+        assertThat(space.offset(space.position(5, 5), 2, -1), is(space.position(7, 4)));
+        assertThat(space.offset(space.position(19, 0), 2, -1), is(space.position(1, 9)));
+        assertThat(space.offset(space.position(0, 9), -1, 2), is(space.position(19, 1)));
+    }
+
+    @Test
+    public void testOffsetWrapsInNarrowSpace() {
+        space = new Space(1, 1);
+        assertThat(space.offset(0, 2, -2), is(0));
+    }
+
+    @Test
+    public void testOffsetMatchesMoves() {
+        for (int position = 0; position < space.size(); position++) {
+            for (int first = 0; first < 4; first++) {
+                for (int second = 0; second < 4; second++) {
+                    int dx = Space.dx(first) + Space.dx(second);
+                    int dy = Space.dy(first) + Space.dy(second);
+                    assertThat(space.offset(position, dx, dy),
+                            is(space.move(space.move(position, first), second)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPrecomputedOffsetMatchesOffset() {
+        for (Space each : new Space[]{space, new Space(16, 5), new Space(4, 7), new Space(1, 1)}) {
+            for (int dx = -Space.MAX_REACH; dx <= Space.MAX_REACH; dx++) {
+                for (int dy = -Space.MAX_REACH; dy <= Space.MAX_REACH; dy++) {
+                    Space.Offset offset = each.getOffset(dx, dy);
+                    for (int position = 0; position < each.size(); position++) {
+                        assertThat(offset.from(position), is(each.offset(position, dx, dy)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOffsetOutOfReach() {
+        space.getOffset(Space.MAX_REACH + 1, 0);
+    }
 }
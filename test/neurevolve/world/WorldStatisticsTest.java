@@ -4,19 +4,22 @@ import neurevolve.TestConfiguration;
 import neurevolve.TestEnvironment;
 import neurevolve.organism.Organism;
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import org.junit.Before;
 import org.junit.Test;
 
 public class WorldStatisticsTest {
 
     private World world;
+    private Time time;
     private WorldStatistics stats;
 
     @Before
     public void setup() {
         Configuration config = new TestConfiguration();
-        Time time = new Time(config);
+        time = new Time(config);
         stats = new WorldStatistics(time);
     }
 
@@ -37,4 +40,12 @@ public class WorldStatisticsTest {
         assertThat(stats.getAverageEnergy(), is(75f));
     }
 
+    @Test
+    public void testComplexityNotRecorded() {
+        stats = new WorldStatistics(time, false);
+        stats.add(new Organism(new TestEnvironment(), 50));
+        assertFalse(stats.isComplexityRecorded());
+        assertTrue(Float.isNaN(stats.getAverageComplexity()));
+    }
+
 }
@@ -1,5 +1,6 @@
 package neurevolve.world;
 
+import java.util.Random;
 import neurevolve.TestConfiguration;
 import static neurevolve.organism.Code.fromInt;
 import neurevolve.organism.Instruction;
@@ -222,4 +223,22 @@ public class WorldTest {
         assertThat(organism.getEnergy(), is(925));
     }
 
+    @Test
+    public void testRandomFreePositionAvoidsOrganismsWallsAndBodies() {
+        Random random = new Random(3);
+        for (int p = 0; p < space.size(); p++) {
+            if (p % 3 == 0)
+                world.addOrganism(new Organism(world, 100), p, EAST);
+            else if (p % 3 == 1)
+                world.addElementValue(p, WALL, 1);
+            else if (p != 50)
+                world.addElementValue(p, BODY, 1);
+        }
+        assertThat(world.getRandomFreePosition(random).getAsInt(), is(50));
+        world.addElementValue(50, BODY, 1);
+        assertFalse(world.getRandomFreePosition(random).isPresent());
+        world.decrementElementValue(50, BODY);
+        world.removeOrganism(world.getOrganism(51));
+        assertTrue(world.getRandomFreePosition(random).getAsInt() % 50 <= 1);
+    }
 }
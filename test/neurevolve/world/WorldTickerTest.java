@@ -1,8 +1,15 @@
 package neurevolve.world;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import neurevolve.TestConfiguration;
+import neurevolve.organism.Code;
+import neurevolve.organism.Instruction;
 import neurevolve.organism.Organism;
+import neurevolve.organism.Recipe;
 import static neurevolve.world.GroundElement.ACID;
 import static neurevolve.world.GroundElement.RADIATION;
 import static neurevolve.world.GroundElement.RESOURCES;
@@ -114,7 +121,128 @@ public class WorldTickerTest {
         assertTrue(totalRadiation() > 170);
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalTileSize() {
+        ticker.setTileSize(WorldTicker.MIN_TILE_SIZE - 1);
+    }
+
+    @Test
+    public void testParallelProcessingProcessesEachOrganismOnce() {
+        space = new Space(40, 30);
+        world = new World(n -> n, space, config);
+        ticker = new WorldTicker(world, config);
+        ticker.setTileSize(WorldTicker.MIN_TILE_SIZE);
+        Recipe recipe = new Recipe(0);
+        recipe.add(Instruction.ADD_NEURON, Code.fromInt(-10));
+        recipe.add(Instruction.SET_ACTIVITY, WorldActivity.MOVE.code());
+        recipe.add(Instruction.ADD_NEURON, Code.fromInt(-10));
+        recipe.add(Instruction.SET_ACTIVITY, WorldActivity.DIVIDE.code());
+        Random random = new Random(3);
+        int count = 0;
+        while (count < 300) {
+            int position = random.nextInt(space.size());
+            if (!world.hasOrganism(position)) {
+                world.addOrganism(new Organism(world, 1000, recipe), position, random.nextInt(4));
+                count++;
+            }
+        }
+        for (int tick = 1; tick <= 3; tick++) {
+            Map<Organism, Integer> previousAges = world.getOrganisms()
+                    .collect(Collectors.toMap(o -> o, Organism::getAge));
+            ticker.tick();
+            List<Organism> survivors = world.getOrganisms()
+                    .filter(previousAges::containsKey).collect(Collectors.toList());
+            survivors.forEach(o -> assertThat(o.getAge(), is(previousAges.get(o) + 1)));
+            assertThat(ticker.getStats().getPopulation(), is((float) survivors.size()));
+            assertTrue(world.getOrganisms()
+                    .filter(o -> !previousAges.containsKey(o))
+                    .allMatch(o -> o.getAge() == 0));
+        }
+        assertTrue(world.getPopulationSize() > 300);
+    }
+
+    @Test
+    public void testSenseThinkActGivesContestedPositionToMostEnergy() {
+        ticker.setSenseThinkAct(true);
+        Recipe recipe = new Recipe(0);
+        recipe.add(Instruction.ADD_NEURON, Code.fromInt(-10));
+        recipe.add(Instruction.SET_ACTIVITY, WorldActivity.MOVE.code());
+        Organism first = new Organism(world, 100, recipe);
+        Organism second = new Organism(world, 200, recipe);
+        world.addOrganism(first, space.position(3, 5), EAST);
+        world.addOrganism(second, space.position(5, 5), Space.WEST);
+        ticker.tick();
+        assertThat(world.getOrganism(space.position(3, 5)), is(first));
+        assertThat(world.getOrganism(space.position(4, 5)), is(second));
+        assertThat(ticker.getStats().getPopulation(), is(2f));
+    }
+
+    @Test
+    public void testSenseThinkActGivesContestedPositionToOneOfEqualOrganisms() {
+        ticker.setSenseThinkAct(true);
+        Recipe recipe = new Recipe(0);
+        recipe.add(Instruction.ADD_NEURON, Code.fromInt(-10));
+        recipe.add(Instruction.SET_ACTIVITY, WorldActivity.MOVE.code());
+        Organism first = new Organism(world, 100, recipe);
+        Organism second = new Organism(world, 100, recipe);
+        world.addOrganism(first, space.position(3, 5), EAST);
+        world.addOrganism(second, space.position(5, 5), Space.WEST);
+        ticker.tick();
+        assertTrue(world.hasOrganism(space.position(4, 5)));
+        assertThat(world.getPosition(first) == space.position(3, 5)
+                || world.getPosition(second) == space.position(5, 5), is(true));
+        assertThat(ticker.getStats().getPopulation(), is(2f));
+    }
+
+    @Test
+    public void testSenseThinkActRemovesDeadOrganisms() {
+        ticker.setSenseThinkAct(true);
+        int position = space.position(4, 7);
+        world.addOrganism(new Organism(world, 0), position, EAST);
+        ticker.tick();
+        assertFalse(world.hasOrganism(position));
+        assertThat(world.getElementValue(position, GroundElement.BODY), is(1));
+    }
+
     private int totalRadiation() {
         return IntStream.range(0, space.size()).map(p -> world.getElementValue(p, RADIATION)).sum();
     }
+
+    @Test
+    public void testSeedingFillsFreePositionsInOneTick() {
+        config.setValue(Configuration.Value.SEED_COUNT, 30);
+        config.setValue(Configuration.Value.INITIAL_ENERGY, 100);
+        for (int p = 0; p < space.size(); p++) {
+            if (p % 4 != 0)
+                world.addElementValue(p, GroundElement.WALL, 1);
+        }
+        ticker.tick();
+        assertThat(world.getPopulationSize(), is(25));
+        assertTrue(world.getOrganisms().allMatch(o -> world.getPosition(o) % 4 == 0));
+    }
+
+    @Test
+    public void testSeededRunsAreRepeatable() {
+        assertThat(seededRun(), is(seededRun()));
+    }
+
+    /**
+     * Run a seeded world in which organisms divide and mutate, and describe the resulting
+     * population by the position and colour of each organism.
+     */
+    private List<String> seededRun() {
+        Configuration seeded = new TestConfiguration();
+        seeded.setValue(Configuration.Value.SEED_COUNT, 10);
+        seeded.setValue(Configuration.Value.INITIAL_ENERGY, 200);
+        seeded.setValue(Configuration.Value.NORMAL_MUTATION_RATE, 200);
+        World seededWorld = new World(n -> n, new Space(20, 20), seeded);
+        WorldTicker seededTicker = new WorldTicker(seededWorld, seeded);
+        seededTicker.setSeed(17);
+        for (int i = 0; i < 30; i++) {
+            seededTicker.tick();
+        }
+        return seededWorld.getOrganisms()
+                .map(o -> seededWorld.getPosition(o) + ":" + o.getColour())
+                .collect(Collectors.toList());
+    }
 }